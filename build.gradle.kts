@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("org.jetbrains.kotlin.jvm") version "1.9.21"
     id("org.jetbrains.intellij") version "1.16.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.github.healarconr"
@@ -11,6 +12,10 @@ repositories {
     mavenCentral()
 }
 
+dependencies {
+    testImplementation("junit:junit:4.13.2")
+}
+
 // Configure Gradle IntelliJ Plugin
 // Read more: https://plugins.jetbrains.com/docs/intellij/tools-gradle-intellij-plugin.html
 intellij {
@@ -21,6 +26,14 @@ intellij {
     updateSinceUntilBuild = false
 }
 
+// Benchmarks of the matching core, which does not depend on the IDE, in src/jmh
+// Run with ./gradlew jmh, the results are written to build/results/jmh/results.json
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
 tasks {
     // Set the JVM compatibility versions
     withType<JavaCompile> {
@@ -31,6 +44,11 @@ tasks {
         kotlinOptions.jvmTarget = "17"
     }
 
+    // Pass the record mode of the performance baselines to the tests
+    test {
+        systemProperty("loggerFolding.recordBaselines", providers.systemProperty("loggerFolding.recordBaselines").getOrElse("false"))
+    }
+
     signPlugin {
         certificateChain.set(System.getenv("CERTIFICATE_CHAIN"))
         privateKey.set(System.getenv("PRIVATE_KEY"))
@@ -0,0 +1,64 @@
+package com.github.healarconr.loggerfolding;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link LoggerNameMatcher}: the compilation of the configured names, which happens every time the
+ * settings are modified, and the lookups performed for every call site, measured per call site
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerNameMatcherBenchmark {
+
+    @Benchmark
+    public LoggerNameMatcher compile(MatchingCoreInputs inputs) {
+
+        return LoggerNameMatcher.compile(inputs.configuredNames);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MatchingCoreInputs.CALL_SITE_COUNT)
+    public void matchCanonicalName(MatchingCoreInputs inputs, Blackhole blackhole) {
+
+        LoggerNameMatcher matcher = inputs.matcher;
+        for (MatchingCoreInputs.CallSite callSite : inputs.callSites) {
+            blackhole.consume(matcher.matches(callSite.canonicalName()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MatchingCoreInputs.CALL_SITE_COUNT)
+    public void matchTypeText(MatchingCoreInputs inputs, Blackhole blackhole) {
+
+        LoggerNameMatcher matcher = inputs.matcher;
+        for (MatchingCoreInputs.CallSite callSite : inputs.callSites) {
+            blackhole.consume(matcher.matches(callSite.typeText()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MatchingCoreInputs.CALL_SITE_COUNT)
+    public void rejectMethodName(MatchingCoreInputs inputs, Blackhole blackhole) {
+
+        LoggerNameMatcher matcher = inputs.matcher;
+        for (MatchingCoreInputs.CallSite callSite : inputs.callSites) {
+            blackhole.consume(matcher.isNonLoggerMethodName(callSite.methodName()));
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.github.healarconr.loggerfolding;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Inputs of the benchmarks of the matching core, generated with a fixed seed so every run measures the same inputs. The
+ * configured names start with the default logger classes and continue with custom logger classes and package wildcards,
+ * as a project with its own logging facade would configure them. The call sites mimic the receivers of the method calls
+ * of a source file, a percentage of them being logger method calls, whose declared types are written as qualified
+ * names, imported simple names, nullable Kotlin types or generic types.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@State(Scope.Benchmark)
+public class MatchingCoreInputs {
+
+    /**
+     * Number of call sites measured by each invocation of a benchmark
+     */
+    static final int CALL_SITE_COUNT = 1024;
+
+    private static final long SEED = 42;
+
+    private static final List<String> DEFAULT_CANONICAL_NAMES = List.of("java.util.logging.Logger", "org.slf4j.Logger",
+            "org.apache.commons.logging.Log", "org.apache.log4j.Logger", "org.apache.logging.log4j.Logger",
+            "android.util.Log", "timber.log.Timber", "mu.KLogger");
+
+    private static final List<String> NON_LOGGER_CANONICAL_NAMES = List.of("java.util.List", "java.util.Map",
+            "java.lang.StringBuilder", "java.util.stream.Stream", "java.util.Optional",
+            "java.util.concurrent.ExecutorService", "com.acme.service.OrderService", "com.acme.model.Customer");
+
+    private static final List<String> LOGGER_METHOD_NAMES = List.of("trace", "debug", "info", "warn", "error");
+
+    private static final List<String> NON_LOGGER_METHOD_NAMES = List.of("add", "append", "get", "put", "map",
+            "submit", "save", "orElse");
+
+    private static final List<String> LOGGER_RECEIVER_NAMES = List.of("log", "logger", "LOG", "LOGGER");
+
+    private static final List<String> NON_LOGGER_RECEIVER_NAMES = List.of("items", "builder", "orders", "executor",
+            "customer", "result");
+
+    /**
+     * Number of configured canonical names and package wildcards
+     */
+    @Param({"8", "50", "500"})
+    public int configuredNameCount;
+
+    /**
+     * Percentage of the call sites that are logger method calls
+     */
+    @Param({"10", "50"})
+    public int loggerCallPercent;
+
+    List<String> configuredNames;
+
+    LoggerNameMatcher matcher;
+
+    Map<String, String> importedCanonicalNames;
+
+    Map<String, String> variableCanonicalNames;
+
+    CallSite[] callSites;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        Random random = new Random(SEED);
+        configuredNames = generateConfiguredNames(configuredNameCount);
+        matcher = LoggerNameMatcher.compile(configuredNames);
+
+        List<String> loggerCanonicalNames = new ArrayList<>();
+        for (String name : configuredNames) {
+            loggerCanonicalNames.add(name.endsWith(".*") ? name.substring(0, name.length() - 1) + "SecurityLogger" : name);
+        }
+
+        importedCanonicalNames = new HashMap<>();
+        for (String canonicalName : NON_LOGGER_CANONICAL_NAMES) {
+            importedCanonicalNames.put(PsiHelper.getSimpleName(canonicalName), canonicalName);
+        }
+        variableCanonicalNames = new HashMap<>();
+        callSites = new CallSite[CALL_SITE_COUNT];
+        for (int index = 0; index < CALL_SITE_COUNT; index++) {
+            boolean logger = random.nextInt(100) < loggerCallPercent;
+            String canonicalName = pick(random, logger ? loggerCanonicalNames : NON_LOGGER_CANONICAL_NAMES);
+            String receiverName = pick(random, logger ? LOGGER_RECEIVER_NAMES : NON_LOGGER_RECEIVER_NAMES) + index;
+            String methodName = pick(random, logger ? LOGGER_METHOD_NAMES : NON_LOGGER_METHOD_NAMES);
+            String typeText = generateTypeText(random, canonicalName, logger);
+            variableCanonicalNames.put(receiverName, canonicalName);
+            callSites[index] = new CallSite(canonicalName, typeText, receiverName, methodName,
+                    receiverName + "." + methodName, index % 8 != 0);
+        }
+    }
+
+    /**
+     * Generates the configured names: the default logger classes first, then custom logger classes with one package
+     * wildcard every five names
+     *
+     * @param count the number of names
+     * @return the names
+     */
+    private static List<String> generateConfiguredNames(int count) {
+
+        List<String> names = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            if (index < DEFAULT_CANONICAL_NAMES.size()) {
+                names.add(DEFAULT_CANONICAL_NAMES.get(index));
+            } else if (index % 5 == 0) {
+                names.add("com.acme.logging.module" + index + ".*");
+            } else {
+                names.add("com.acme.logging.module" + index + ".AuditLogger");
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Generates the declared type text of a receiver, written qualified or as an imported simple name. Logger types are
+     * also written as nullable Kotlin types and other types as generic types or as a simple name that is not imported,
+     * e.g. a class of the same package named like a logger class.
+     *
+     * @param random        the random number generator
+     * @param canonicalName the canonical name of the type
+     * @param logger        true if the type is a logger class
+     * @return the type text
+     */
+    private String generateTypeText(Random random, String canonicalName, boolean logger) {
+
+        String simpleName = PsiHelper.getSimpleName(canonicalName);
+        switch (random.nextInt(4)) {
+            case 0:
+                return canonicalName;
+            case 1:
+                importedCanonicalNames.putIfAbsent(simpleName, canonicalName);
+                return simpleName + (logger ? "?" : "<String>");
+            case 2:
+                return logger ? canonicalName + "?" : "RequestLogger";
+            default:
+                importedCanonicalNames.putIfAbsent(simpleName, canonicalName);
+                return simpleName;
+        }
+    }
+
+    private static String pick(Random random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Receiver of a method call of a source file
+     *
+     * @param canonicalName        the canonical name of the declared type of the receiver
+     * @param typeText             the declared type text of the receiver
+     * @param receiverName         the name of the receiver
+     * @param methodName           the name of the method
+     * @param methodExpressionText the text of the method expression, e.g. {@code log.debug}
+     * @param withSemicolon        true if the method call is followed by a semicolon
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    record CallSite(String canonicalName, String typeText, String receiverName, String methodName,
+                    String methodExpressionText, boolean withSemicolon) {
+
+    }
+
+}
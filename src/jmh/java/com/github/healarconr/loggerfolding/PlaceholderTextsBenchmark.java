@@ -0,0 +1,47 @@
+package com.github.healarconr.loggerfolding;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the formatting of the placeholder texts by the {@link PlaceholderTexts}, measured per call site
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholderTextsBenchmark {
+
+    @Benchmark
+    @OperationsPerInvocation(MatchingCoreInputs.CALL_SITE_COUNT)
+    public void formatJavaMethodCall(MatchingCoreInputs inputs, Blackhole blackhole) {
+
+        for (MatchingCoreInputs.CallSite callSite : inputs.callSites) {
+            blackhole.consume(PlaceholderTexts.formatJavaMethodCall(callSite.methodExpressionText(),
+                    callSite.withSemicolon()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MatchingCoreInputs.CALL_SITE_COUNT)
+    public void formatRun(MatchingCoreInputs inputs, Blackhole blackhole) {
+
+        MatchingCoreInputs.CallSite[] callSites = inputs.callSites;
+        for (int index = 0; index < callSites.length; index++) {
+            blackhole.consume(PlaceholderTexts.formatRun(callSites[index].methodExpressionText(), 2 + index % 8));
+        }
+    }
+
+}
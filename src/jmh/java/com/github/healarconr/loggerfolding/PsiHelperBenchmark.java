@@ -0,0 +1,60 @@
+package com.github.healarconr.loggerfolding;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the derivation of the canonical names of the receivers without resolving references by the
+ * {@link PsiHelper}, alone and followed by the lookup in the {@link LoggerNameMatcher} as the syntactic detection does,
+ * measured per call site
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PsiHelperBenchmark {
+
+    @Benchmark
+    @OperationsPerInvocation(MatchingCoreInputs.CALL_SITE_COUNT)
+    public void canonicalNameFromTypeText(MatchingCoreInputs inputs, Blackhole blackhole) {
+
+        for (MatchingCoreInputs.CallSite callSite : inputs.callSites) {
+            blackhole.consume(PsiHelper.getCanonicalNameFromTypeText(callSite.typeText(), inputs.importedCanonicalNames));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MatchingCoreInputs.CALL_SITE_COUNT)
+    public void canonicalNameFromReceiverName(MatchingCoreInputs inputs, Blackhole blackhole) {
+
+        for (MatchingCoreInputs.CallSite callSite : inputs.callSites) {
+            blackhole.consume(PsiHelper.getCanonicalNameFromReceiverName(callSite.receiverName(),
+                    inputs.variableCanonicalNames, inputs.importedCanonicalNames));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MatchingCoreInputs.CALL_SITE_COUNT)
+    public void matchTypeTextWithImports(MatchingCoreInputs inputs, Blackhole blackhole) {
+
+        LoggerNameMatcher matcher = inputs.matcher;
+        for (MatchingCoreInputs.CallSite callSite : inputs.callSites) {
+            String canonicalName = PsiHelper.getCanonicalNameFromTypeText(callSite.typeText(),
+                    inputs.importedCanonicalNames);
+            blackhole.consume(canonicalName != null && matcher.matches(canonicalName));
+        }
+    }
+
+}
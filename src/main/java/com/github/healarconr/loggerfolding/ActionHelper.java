@@ -1,21 +1,42 @@
 package com.github.healarconr.loggerfolding;
 
 import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.TextEditor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiJavaFile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static com.intellij.openapi.actionSystem.CommonDataKeys.*;
 
 /**
- * Utility class to determine if the folding actions should be available
+ * Utility class to determine if the folding actions should be available, to obtain the editors they act on and to
+ * compute their logger method calls in background
  *
  * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
  */
 final class ActionHelper {
 
+    private static final int EDITORS_PER_BATCH = 8;
+
     private ActionHelper() {
 
         super();
@@ -25,15 +46,220 @@ final class ActionHelper {
      * Determines if the folding actions should be available by evaluating the project, editor and PSI file
      *
      * @param actionEvent the action event
-     * @return true if the project, editor and PSI file are not null and the PSI file represents a Java file
+     * @return true if the project, editor and PSI file are not null and the PSI file represents a Java or a Kotlin file
      */
     static boolean isAvailable(@NotNull AnActionEvent actionEvent) {
 
         Project project = actionEvent.getData(PROJECT);
         Editor editor = actionEvent.getData(EDITOR);
         PsiFile psiFile = actionEvent.getData(PSI_FILE);
-        return project != null && editor != null && psiFile != null && (psiFile instanceof PsiJavaFile ||
-                psiFile.getClass().getCanonicalName().equals("org.jetbrains.kotlin.psi.KtFile"));
+        return project != null && editor != null && psiFile != null && LoggerCallSites.isSupported(psiFile);
+    }
+
+    /**
+     * Returns the text editors of the files opened in a project
+     *
+     * @param project the project
+     * @return the text editors whose file is not null
+     */
+    @NotNull
+    static List<TextEditor> getOpenTextEditors(@NotNull Project project) {
+
+        List<TextEditor> textEditors = new ArrayList<>();
+        for (FileEditor fileEditor : FileEditorManager.getInstance(project).getAllEditors()) {
+            if (fileEditor instanceof TextEditor textEditor && textEditor.getFile() != null) {
+                textEditors.add(textEditor);
+            }
+        }
+        return textEditors;
+    }
+
+    /**
+     * Returns the editors of the open files of a project whose logger method calls can be obtained. It must be invoked
+     * on the EDT.
+     *
+     * @param project the project
+     * @return the editors of the open Java and Kotlin files
+     */
+    @NotNull
+    static List<Editor> getSupportedOpenEditors(@NotNull Project project) {
+
+        PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(project);
+        List<Editor> editors = new ArrayList<>();
+        for (TextEditor textEditor : getOpenTextEditors(project)) {
+            Editor editor = textEditor.getEditor();
+            PsiFile psiFile = psiDocumentManager.getPsiFile(editor.getDocument());
+            if (psiFile != null && LoggerCallSites.isSupported(psiFile)) {
+                editors.add(editor);
+            }
+        }
+        return editors;
+    }
+
+    /**
+     * Computes the logger method calls of a file in a cancellable background read action and passes them to a consumer
+     * on the EDT. The read action is restarted when a write action starts and the result is discarded if the editor is
+     * disposed or the document is modified before the consumer is invoked. When the task runs with read access, as when
+     * it is run synchronously on the EDT in headless mode, the call sites are computed directly, since a non-blocking
+     * read action cannot be executed synchronously with read access.
+     *
+     * @param project  the project
+     * @param editor   the editor of the file
+     * @param psiFile  the PSI file
+     * @param title    the title of the background task
+     * @param consumer the consumer of the call sites, invoked on the EDT
+     */
+    static void computeCallSitesInBackground(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile psiFile,
+                                             @NotNull String title, @NotNull Consumer<List<LoggerCallSite>> consumer) {
+
+        Document document = editor.getDocument();
+        new Task.Backgroundable(project, title, true) {
+
+            private List<LoggerCallSite> callSites;
+            private long modificationStamp;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+
+                indicator.setIndeterminate(true);
+                if (ApplicationManager.getApplication().isReadAccessAllowed()) {
+                    callSites = computeCallSites();
+                    return;
+                }
+                callSites = ReadAction.nonBlocking(this::computeCallSites)
+                        .withDocumentsCommitted(project)
+                        .inSmartMode(project)
+                        .expireWhen(() -> editor.isDisposed() || !psiFile.isValid())
+                        .wrapProgress(indicator)
+                        .executeSynchronously();
+            }
+
+            @Nullable
+            private List<LoggerCallSite> computeCallSites() {
+
+                if (editor.isDisposed() || !psiFile.isValid()) {
+                    return null;
+                }
+                modificationStamp = document.getModificationStamp();
+                return LoggerCallSites.coalesceAdjacent(psiFile, LoggerCallSites.getCallSites(psiFile));
+            }
+
+            @Override
+            public void onSuccess() {
+
+                if (callSites != null && !editor.isDisposed() && document.getModificationStamp() == modificationStamp) {
+                    consumer.accept(callSites);
+                }
+            }
+        }.queue();
+    }
+
+    /**
+     * Computes the logger method calls of the files opened in a project in parallel cancellable background read actions
+     * and passes them to a consumer on the EDT in batches of {@value #EDITORS_PER_BATCH} editors. The result of an
+     * editor is discarded if the editor is disposed or its document is modified before the consumer is invoked. As in
+     * {@link #computeCallSitesInBackground}, the call sites are computed directly when the task runs with read access.
+     *
+     * @param project  the project
+     * @param title    the title of the background task
+     * @param consumer the consumer of the editors and their call sites, invoked on the EDT
+     */
+    static void computeOpenFilesCallSitesInBackground(@NotNull Project project, @NotNull String title,
+                                                      @NotNull BiConsumer<Editor, List<LoggerCallSite>> consumer) {
+
+        List<Editor> editors = getSupportedOpenEditors(project);
+        if (editors.isEmpty()) {
+            return;
+        }
+
+        new Task.Backgroundable(project, title, true) {
+
+            private final Queue<EditorCallSites> editorsCallSites = new ConcurrentLinkedQueue<>();
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+
+                indicator.setIndeterminate(false);
+                AtomicInteger processedEditors = new AtomicInteger();
+                JobLauncher.getInstance().invokeConcurrentlyUnderProgress(editors, indicator, editor -> {
+                    EditorCallSites editorCallSites = ApplicationManager.getApplication().isReadAccessAllowed()
+                            ? computeCallSites(project, editor)
+                            : ReadAction.nonBlocking(() -> computeCallSites(project, editor))
+                            .withDocumentsCommitted(project)
+                            .inSmartMode(project)
+                            .executeSynchronously();
+                    if (editorCallSites != null) {
+                        editorsCallSites.add(editorCallSites);
+                    }
+                    indicator.setFraction((double) processedEditors.incrementAndGet() / editors.size());
+                    return true;
+                });
+            }
+
+            @Override
+            public void onSuccess() {
+
+                applyInBatches(project, new ArrayList<>(editorsCallSites), 0, consumer);
+            }
+        }.queue();
+    }
+
+    /**
+     * Computes the logger method calls of the file of an editor. It must be invoked in a read action.
+     *
+     * @param project the project
+     * @param editor  the editor
+     * @return the call sites of the editor or null if the editor is disposed or its file is not valid
+     */
+    @Nullable
+    private static EditorCallSites computeCallSites(@NotNull Project project, @NotNull Editor editor) {
+
+        if (editor.isDisposed()) {
+            return null;
+        }
+        Document document = editor.getDocument();
+        PsiFile psiFile = PsiDocumentManager.getInstance(project).getPsiFile(document);
+        if (psiFile == null || !psiFile.isValid()) {
+            return null;
+        }
+        return new EditorCallSites(editor, document.getModificationStamp(),
+                LoggerCallSites.coalesceAdjacent(psiFile, LoggerCallSites.getCallSites(psiFile)));
+    }
+
+    /**
+     * Passes a batch of call sites to a consumer and schedules the next batch on the EDT
+     *
+     * @param project          the project
+     * @param editorsCallSites the call sites of the editors
+     * @param fromIndex        the index of the first call sites of the batch
+     * @param consumer         the consumer of the editors and their call sites
+     */
+    private static void applyInBatches(@NotNull Project project, @NotNull List<EditorCallSites> editorsCallSites, int fromIndex,
+                                       @NotNull BiConsumer<Editor, List<LoggerCallSite>> consumer) {
+
+        int toIndex = Math.min(fromIndex + EDITORS_PER_BATCH, editorsCallSites.size());
+        for (EditorCallSites editorCallSites : editorsCallSites.subList(fromIndex, toIndex)) {
+            Editor editor = editorCallSites.editor();
+            if (!editor.isDisposed() && editor.getDocument().getModificationStamp() == editorCallSites.modificationStamp()) {
+                consumer.accept(editor, editorCallSites.callSites());
+            }
+        }
+        if (toIndex < editorsCallSites.size()) {
+            ApplicationManager.getApplication().invokeLater(() -> applyInBatches(project, editorsCallSites, toIndex, consumer),
+                    project.getDisposed());
+        }
+    }
+
+    /**
+     * Logger method calls of the file of an editor
+     *
+     * @param editor            the editor
+     * @param modificationStamp the modification stamp of the document when the call sites were computed
+     * @param callSites         the call sites
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record EditorCallSites(@NotNull Editor editor, long modificationStamp, @NotNull List<LoggerCallSite> callSites) {
+
     }
 
 }
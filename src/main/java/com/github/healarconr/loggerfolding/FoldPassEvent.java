@@ -0,0 +1,91 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.psi.PsiFile;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Java Flight Recorder event of the collection of the logger method calls of a file. No event is allocated while the
+ * event type is disabled, which is the case unless a recording enables it.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@Name("com.github.healarconr.loggerfolding.FoldPass")
+@Label("Logger Folding Pass")
+@Category("Logger Folding")
+@Description("Collection of the logger method calls of a file")
+@StackTrace(false)
+final class FoldPassEvent extends Event {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(FoldPassEvent.class);
+
+    private static final FoldPassEvent DISABLED = new FoldPassEvent();
+
+    @Label("File")
+    String file;
+
+    @Label("Language")
+    String language;
+
+    @Label("Elements Visited")
+    int elementCount;
+
+    @Label("Calls Matched")
+    int matchCount;
+
+    @Label("Without Resolving")
+    @Description("The calls were detected without resolving references, as in quick passes and dumb mode")
+    boolean quick;
+
+    @Label("Dumb Mode")
+    boolean dumb;
+
+    /**
+     * Creates and begins an event if the event type is enabled
+     *
+     * @return the event, or a shared event that is never committed if the event type is disabled
+     */
+    @NotNull
+    static FoldPassEvent start() {
+
+        if (!EVENT_TYPE.isEnabled()) {
+            return DISABLED;
+        }
+        FoldPassEvent event = new FoldPassEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it if it is enabled and its duration is within the threshold
+     *
+     * @param psiFile      the PSI file
+     * @param quick        true if the calls were detected without resolving references
+     * @param elementCount the number of elements visited
+     * @param matchCount   the number of logger method calls matched
+     */
+    void finish(@NotNull PsiFile psiFile, boolean quick, int elementCount, int matchCount) {
+
+        if (this == DISABLED) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            this.file = LoggerFoldingStatistics.getFilePath(psiFile);
+            this.language = psiFile.getLanguage().getID();
+            this.elementCount = elementCount;
+            this.matchCount = matchCount;
+            this.quick = quick;
+            this.dumb = DumbService.isDumb(psiFile.getProject());
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.util.TextRange;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Text range to fold in an editor with the placeholder text of its fold region
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+interface FoldTarget {
+
+    /**
+     * Returns the text range of the fold region
+     *
+     * @return the text range
+     */
+    @NotNull
+    TextRange textRange();
+
+    /**
+     * Returns the placeholder text of the fold region
+     *
+     * @return the placeholder text
+     */
+    @NotNull
+    String placeholderText();
+
+}
@@ -0,0 +1,206 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.FoldRegion;
+import com.intellij.openapi.editor.FoldingModel;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Helper class to fold and unfold text ranges of an editor in a single batch folding operation. The targets are
+ * reconciled with the fold regions that already exist, so only the fold regions that differ are added, collapsed or
+ * removed.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class FoldingModelHelper {
+
+    /**
+     * Marks the fold regions added by {@link #reconcile(Editor, TextRange, Collection)}
+     */
+    private static final Key<Boolean> INCREMENTAL_FOLD_REGION_KEY = Key.create("LoggerFolding.incrementalFoldRegion");
+
+    private FoldingModelHelper() {
+
+        super();
+    }
+
+    /**
+     * Folds the text ranges of the targets, adding the missing fold regions and collapsing the expanded ones
+     *
+     * @param editor  the editor
+     * @param targets the fold targets
+     */
+    static void fold(@NotNull Editor editor, @NotNull Collection<? extends FoldTarget> targets) {
+
+        FoldingModel foldingModel = editor.getFoldingModel();
+        Map<TextRange, FoldRegion> foldRegions = getFoldRegions(foldingModel);
+
+        List<FoldTarget> targetsToAdd = new ArrayList<>();
+        List<FoldRegion> foldRegionsToCollapse = new ArrayList<>();
+        for (FoldTarget target : targets) {
+            FoldRegion foldRegion = foldRegions.get(target.textRange());
+            if (foldRegion == null) {
+                targetsToAdd.add(target);
+            } else if (foldRegion.isExpanded()) {
+                foldRegionsToCollapse.add(foldRegion);
+            }
+        }
+
+        if (targetsToAdd.isEmpty() && foldRegionsToCollapse.isEmpty()) {
+            return;
+        }
+
+        foldingModel.runBatchFoldingOperation(() -> {
+            for (FoldTarget target : targetsToAdd) {
+                TextRange textRange = target.textRange();
+                FoldRegion foldRegion = foldingModel.addFoldRegion(textRange.getStartOffset(), textRange.getEndOffset(),
+                        target.placeholderText());
+                if (foldRegion != null) {
+                    foldRegion.setExpanded(false);
+                }
+            }
+            for (FoldRegion foldRegion : foldRegionsToCollapse) {
+                foldRegion.setExpanded(false);
+            }
+        });
+    }
+
+    /**
+     * Unfolds the text ranges of the targets, removing the fold regions that exist
+     *
+     * @param editor  the editor
+     * @param targets the fold targets
+     */
+    static void unfold(@NotNull Editor editor, @NotNull Collection<? extends FoldTarget> targets) {
+
+        FoldingModel foldingModel = editor.getFoldingModel();
+        Map<TextRange, FoldRegion> foldRegions = getFoldRegions(foldingModel);
+
+        List<FoldRegion> foldRegionsToRemove = new ArrayList<>();
+        for (FoldTarget target : targets) {
+            FoldRegion foldRegion = foldRegions.get(target.textRange());
+            if (foldRegion != null) {
+                foldRegionsToRemove.add(foldRegion);
+            }
+        }
+
+        if (foldRegionsToRemove.isEmpty()) {
+            return;
+        }
+
+        foldingModel.runBatchFoldingOperation(() -> {
+            for (FoldRegion foldRegion : foldRegionsToRemove) {
+                foldingModel.removeFoldRegion(foldRegion);
+            }
+        });
+    }
+
+    /**
+     * Reconciles the fold regions that start in a text range with the targets that start in it. The missing fold regions
+     * are added, collapsed unless the caret is inside them or at their end, and the fold regions previously added by
+     * this method that no longer match a target are removed, even if they end after the text range. The fold regions
+     * that start outside the text range are left alone.
+     *
+     * @param editor    the editor
+     * @param textRange the text range
+     * @param targets   the fold targets that start in the text range
+     */
+    static void reconcile(@NotNull Editor editor, @NotNull TextRange textRange, @NotNull Collection<? extends FoldTarget> targets) {
+
+        FoldingModel foldingModel = editor.getFoldingModel();
+
+        Set<TextRange> targetTextRanges = new HashSet<>();
+        List<FoldTarget> targetsToAdd = new ArrayList<>();
+        for (FoldTarget target : targets) {
+            TextRange targetTextRange = target.textRange();
+            targetTextRanges.add(targetTextRange);
+            if (foldingModel.getFoldRegion(targetTextRange.getStartOffset(), targetTextRange.getEndOffset()) == null) {
+                targetsToAdd.add(target);
+            }
+        }
+
+        List<FoldRegion> foldRegionsToRemove = new ArrayList<>();
+        FoldRegion[] allFoldRegions = foldingModel.getAllFoldRegions();
+        for (int index = findFirstFoldRegion(allFoldRegions, textRange.getStartOffset());
+             index < allFoldRegions.length && allFoldRegions[index].getStartOffset() < textRange.getEndOffset(); index++) {
+            FoldRegion foldRegion = allFoldRegions[index];
+            if (foldRegion.isValid() && foldRegion.getUserData(INCREMENTAL_FOLD_REGION_KEY) != null
+                    && !targetTextRanges.contains(foldRegion.getTextRange())) {
+                foldRegionsToRemove.add(foldRegion);
+            }
+        }
+
+        if (targetsToAdd.isEmpty() && foldRegionsToRemove.isEmpty()) {
+            return;
+        }
+
+        int caretOffset = editor.getCaretModel().getOffset();
+        foldingModel.runBatchFoldingOperation(() -> {
+            for (FoldRegion foldRegion : foldRegionsToRemove) {
+                foldingModel.removeFoldRegion(foldRegion);
+            }
+            for (FoldTarget target : targetsToAdd) {
+                TextRange targetTextRange = target.textRange();
+                FoldRegion foldRegion = foldingModel.addFoldRegion(targetTextRange.getStartOffset(),
+                        targetTextRange.getEndOffset(), target.placeholderText());
+                if (foldRegion != null) {
+                    foldRegion.putUserData(INCREMENTAL_FOLD_REGION_KEY, Boolean.TRUE);
+                    foldRegion.setExpanded(caretOffset > targetTextRange.getStartOffset()
+                            && caretOffset <= targetTextRange.getEndOffset());
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the index of the first fold region that starts at or after an offset
+     *
+     * @param foldRegions the fold regions sorted by start offset
+     * @param offset      the offset
+     * @return the index of the fold region or the number of fold regions if there is none
+     */
+    private static int findFirstFoldRegion(@NotNull FoldRegion[] foldRegions, int offset) {
+
+        int low = 0;
+        int high = foldRegions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (foldRegions[middle].getStartOffset() < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the valid fold regions of a folding model mapped by text range
+     *
+     * @param foldingModel the folding model
+     * @return the fold regions mapped by text range
+     */
+    @NotNull
+    private static Map<TextRange, FoldRegion> getFoldRegions(@NotNull FoldingModel foldingModel) {
+
+        FoldRegion[] allFoldRegions = foldingModel.getAllFoldRegions();
+        Map<TextRange, FoldRegion> foldRegions = new HashMap<>(allFoldRegions.length * 2);
+        for (FoldRegion foldRegion : allFoldRegions) {
+            if (foldRegion.isValid()) {
+                foldRegions.put(foldRegion.getTextRange(), foldRegion);
+            }
+        }
+        return foldRegions;
+    }
+
+}
@@ -4,7 +4,9 @@ import com.intellij.application.options.editor.CodeFoldingOptionsProvider;
 import com.intellij.openapi.options.BeanConfigurable;
 
 /**
- * Code folding options provider to enable collapse by default on logger method calls
+ * Code folding options provider to enable collapse by default on logger method calls, their incremental folding while
+ * typing and the coalescing of adjacent logger method calls into a single region, and to set the number of lines above
+ * which the logger method calls of a file are folded as they become visible
  *
  * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
  */
@@ -16,6 +18,33 @@ public class FoldingOptionsProvider extends BeanConfigurable<LoggerFoldingApplic
         checkBox("Logger method calls", LoggerFoldingApplicationSettings.getInstance()
                 .getState()::getCollapseByDefault, LoggerFoldingApplicationSettings
                 .getInstance().getState()::setCollapseByDefault);
+        checkBox("Logger method calls while typing", LoggerFoldingApplicationSettings.getInstance()
+                .getState()::getFoldWhileTyping, LoggerFoldingApplicationSettings
+                .getInstance().getState()::setFoldWhileTyping);
+        checkBox("Adjacent logger method calls as a single region", LoggerFoldingApplicationSettings.getInstance()
+                .getState()::getCoalesceAdjacent, LoggerFoldingApplicationSettings
+                .getInstance().getState()::setCoalesceAdjacent);
+        textField("Fold lazily in files longer than N lines, N (0 to disable):",
+                () -> String.valueOf(LoggerFoldingApplicationSettings.getInstance().getState().getLazyFoldingLineThreshold()),
+                FoldingOptionsProvider::setLazyFoldingLineThreshold);
+    }
+
+    /**
+     * Sets the number of lines above which the logger method calls of a file are folded as they become visible,
+     * ignoring the values that are not non-negative integers
+     *
+     * @param text the number of lines
+     */
+    private static void setLazyFoldingLineThreshold(String text) {
+
+        try {
+            int lazyFoldingLineThreshold = Integer.parseInt(text.trim());
+            if (lazyFoldingLineThreshold >= 0) {
+                LoggerFoldingApplicationSettings.getInstance().getState().setLazyFoldingLineThreshold(lazyFoldingLineThreshold);
+            }
+        } catch (NumberFormatException e) {
+            // Keep the current value
+        }
     }
 
 }
@@ -0,0 +1,63 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Helper class to look up the canonical names of the classes imported by a file by simple name or alias. The imported
+ * canonical names are computed once by the {@link LoggerCallDetector} of the file from its import statements or
+ * directives and cached until the file is modified, so each lookup is a single map access instead of a scan of the import list.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class ImportTable {
+
+    private static final Key<CachedValue<Map<String, String>>> IMPORT_TABLE_KEY = Key.create("LoggerFolding.importTable");
+
+    private ImportTable() {
+
+        super();
+    }
+
+    /**
+     * Returns the canonical names of the classes imported by a file, computing them only if the cached ones are no
+     * longer valid
+     *
+     * @param psiFile the PSI file
+     * @return an unmodifiable map of the imported canonical names by simple name or alias, empty if the file is not
+     * supported
+     */
+    @NotNull
+    static Map<String, String> getImportedCanonicalNames(@NotNull PsiFile psiFile) {
+
+        LoggerCallDetector detector = LoggerCallSites.getDetector(psiFile);
+        if (detector == null) {
+            return Collections.emptyMap();
+        }
+        return CachedValuesManager.getCachedValue(psiFile, IMPORT_TABLE_KEY,
+                () -> CachedValueProvider.Result.create(Collections.unmodifiableMap(detector.getImportedCanonicalNames(psiFile)),
+                        psiFile));
+    }
+
+    /**
+     * Looks up the canonical name of a class imported by a file
+     *
+     * @param psiFile    the PSI file
+     * @param simpleName the simple name or alias of the class
+     * @return the canonical name or null if the file does not import a class with that simple name or alias
+     */
+    @Nullable
+    static String getImportedCanonicalName(@NotNull PsiFile psiFile, @NotNull String simpleName) {
+
+        return getImportedCanonicalNames(psiFile).get(simpleName);
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Folds the logger method calls added while typing when collapse by default is enabled. The PSI changes are collected
+ * as the statements that contain them, only those statements are checked again in a background read action and only
+ * the fold regions contained in them are added or removed, so the cost of a change does not depend on the size of the
+ * file.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@Service(Service.Level.PROJECT)
+public final class IncrementalLoggerFolding implements Disposable {
+
+    private final Project project;
+
+    /**
+     * Scopes modified since the last check, only accessed on the EDT
+     */
+    private final Set<PsiElement> pendingScopes = new LinkedHashSet<>();
+
+    private boolean checkScheduled;
+
+    public IncrementalLoggerFolding(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Helper method to get the instance of a project
+     *
+     * @param project the project
+     * @return the instance of the project
+     */
+    static IncrementalLoggerFolding getInstance(Project project) {
+        return project.getService(IncrementalLoggerFolding.class);
+    }
+
+    /**
+     * Starts listening to the PSI changes of the project until the project is closed
+     */
+    void register() {
+
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                elementChanged(event.getChild());
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                elementChanged(event.getNewChild());
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                elementChanged(event.getChild());
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                elementChanged(event.getParent());
+            }
+        }, this);
+    }
+
+    @Override
+    public void dispose() {
+        pendingScopes.clear();
+    }
+
+    /**
+     * Collects the scope of a changed element and schedules the check of the collected scopes. Removed elements are
+     * ignored because their fold regions are invalidated with their text.
+     *
+     * @param element the changed element
+     */
+    private void elementChanged(@Nullable PsiElement element) {
+
+        if (element == null || !isEnabled()) {
+            return;
+        }
+        PsiFile psiFile = element.getContainingFile();
+        if (psiFile == null || !psiFile.isPhysical() || !LoggerCallSites.isSupported(psiFile)) {
+            return;
+        }
+        PsiElement scope = LoggerCallSites.getIncrementalScope(element);
+        if (scope == null) {
+            // The whole file changed, which is handled by the folding pass
+            return;
+        }
+        pendingScopes.add(scope);
+        if (!checkScheduled) {
+            checkScheduled = true;
+            ApplicationManager.getApplication().invokeLater(this::checkPendingScopes, project.getDisposed());
+        }
+    }
+
+    /**
+     * Checks the collected scopes in a background read action and reconciles their fold regions on the EDT
+     */
+    private void checkPendingScopes() {
+
+        checkScheduled = false;
+        List<PsiElement> scopes = new ArrayList<>(pendingScopes);
+        pendingScopes.clear();
+
+        ReadAction.nonBlocking(() -> computeCallSites(scopes))
+                .withDocumentsCommitted(project)
+                .inSmartMode(project)
+                .expireWith(this)
+                .finishOnUiThread(ModalityState.defaultModalityState(), this::reconcile)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * Computes the logger method calls of the scopes that are still valid. It must be invoked in a read action.
+     *
+     * @param scopes the scopes
+     * @return the call sites of the scopes
+     */
+    @NotNull
+    private List<ScopeCallSites> computeCallSites(@NotNull List<PsiElement> scopes) {
+
+        PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(project);
+        List<ScopeCallSites> scopesCallSites = new ArrayList<>(scopes.size());
+        for (PsiElement scope : scopes) {
+            if (!scope.isValid()) {
+                continue;
+            }
+            Document document = psiDocumentManager.getDocument(scope.getContainingFile());
+            if (document != null) {
+                List<LoggerCallSite> callSites = LoggerCallSites.coalesceAdjacent(scope.getContainingFile(),
+                        LoggerCallSites.computeCallSitesIn(scope));
+                scopesCallSites.add(new ScopeCallSites(document, document.getModificationStamp(), scope.getTextRange(),
+                        callSites));
+            }
+        }
+        return scopesCallSites;
+    }
+
+    /**
+     * Reconciles the fold regions of the editors of the scopes whose documents were not modified after the call sites
+     * were computed. The modified ones are checked again when their change is collected.
+     *
+     * @param scopesCallSites the call sites of the scopes
+     */
+    private void reconcile(@NotNull List<ScopeCallSites> scopesCallSites) {
+
+        if (!isEnabled()) {
+            return;
+        }
+        for (ScopeCallSites scopeCallSites : scopesCallSites) {
+            Document document = scopeCallSites.document();
+            if (document.getModificationStamp() != scopeCallSites.modificationStamp()) {
+                continue;
+            }
+            for (Editor editor : EditorFactory.getInstance().getEditors(document, project)) {
+                FoldingModelHelper.reconcile(editor, scopeCallSites.textRange(), scopeCallSites.callSites());
+            }
+        }
+    }
+
+    /**
+     * Determines if the logger method calls must be folded while typing
+     *
+     * @return true if collapse by default and fold while typing are enabled
+     */
+    private static boolean isEnabled() {
+
+        LoggerFoldingApplicationSettings.State state = LoggerFoldingApplicationSettings.getInstance().getState();
+        return state.getCollapseByDefault() && state.getFoldWhileTyping();
+    }
+
+    /**
+     * Logger method calls of a scope
+     *
+     * @param document          the document of the scope
+     * @param modificationStamp the modification stamp of the document when the call sites were computed
+     * @param textRange         the text range of the scope
+     * @param callSites         the call sites contained in the scope
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record ScopeCallSites(@NotNull Document document, long modificationStamp, @NotNull TextRange textRange,
+                                  @NotNull List<LoggerCallSite> callSites) {
+
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Startup activity that starts the incremental folding of logger method calls of a project
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class IncrementalLoggerFoldingStartupActivity implements StartupActivity.DumbAware {
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+
+        IncrementalLoggerFolding.getInstance(project).register();
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Detector of the Java logger method calls based on {@link JavaPsiHelper}
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class JavaLoggerCallDetector implements LoggerCallDetector {
+
+    @Override
+    public boolean isApplicable(@NotNull PsiFile psiFile) {
+        return psiFile instanceof PsiJavaFile;
+    }
+
+    @Override
+    public boolean canContainMethodCalls(@NotNull PsiElement element) {
+        return JavaPsiHelper.canContainMethodCalls(element);
+    }
+
+    @NotNull
+    @Override
+    public Function<PsiElement, LoggerCallSite> createDetector(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        return element -> {
+            String canonicalName = JavaPsiHelper.getLoggerCanonicalName(element, snapshot);
+            return canonicalName == null ? null :
+                    LoggerCallSites.createCallSite(element, canonicalName, JavaPsiHelper::createCallSite);
+        };
+    }
+
+    @NotNull
+    @Override
+    public Function<PsiElement, LoggerCallSite> createSyntacticDetector(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        LoggerNameMatcher matcher = snapshot.matcher();
+        Set<String> receiverNames = snapshot.receiverNames();
+        Map<String, String> importedCanonicalNames = ImportTable.getImportedCanonicalNames(psiFile);
+        Map<String, String> variableCanonicalNames = JavaPsiHelper.getVariableCanonicalNames((PsiJavaFile) psiFile,
+                importedCanonicalNames);
+        return element -> {
+            String canonicalName = JavaPsiHelper.getSyntacticLoggerCanonicalName(element, variableCanonicalNames,
+                    importedCanonicalNames);
+            if (canonicalName != null ? !matcher.matches(canonicalName) :
+                    !receiverNames.contains(JavaPsiHelper.getReceiverName(element))) {
+                return null;
+            }
+            return LoggerCallSites.createCallSite(element, canonicalName, JavaPsiHelper::createCallSite);
+        };
+    }
+
+    @NotNull
+    @Override
+    public Function<PsiElement, LoggerCallSite> createIndexDetector(@NotNull PsiFile psiFile) {
+
+        Map<String, String> importedCanonicalNames = JavaPsiHelper.getImportedCanonicalNames((PsiJavaFile) psiFile);
+        Map<String, String> variableCanonicalNames = JavaPsiHelper.getVariableCanonicalNames((PsiJavaFile) psiFile,
+                importedCanonicalNames);
+        return element -> {
+            String canonicalName = JavaPsiHelper.getSyntacticLoggerCanonicalName(element, variableCanonicalNames,
+                    importedCanonicalNames);
+            return canonicalName == null || !LoggerNameMatcher.isIndexable(canonicalName,
+                    JavaPsiHelper.getMethodName(element)) ? null : JavaPsiHelper.createCallSite(element, canonicalName);
+        };
+    }
+
+    @Nullable
+    @Override
+    public PsiElement getEnclosingStatement(@NotNull PsiElement element) {
+        return JavaPsiHelper.getEnclosingStatement(element);
+    }
+
+    @Nullable
+    @Override
+    public PsiElement findMethodCall(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+        return JavaPsiHelper.findMethodCall(psiFile, callSite);
+    }
+
+    @Nullable
+    @Override
+    public String getMethodName(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+        return JavaPsiHelper.getMethodName(psiFile, callSite);
+    }
+
+    @Nullable
+    @Override
+    public String getPlaceholderText(@NotNull PsiElement methodCall) {
+        return JavaPsiHelper.getPlaceholderText(methodCall);
+    }
+
+    @NotNull
+    @Override
+    public Map<String, String> getImportedCanonicalNames(@NotNull PsiFile psiFile) {
+        return JavaPsiHelper.getImportedCanonicalNames((PsiJavaFile) psiFile);
+    }
+
+    @NotNull
+    @Override
+    public Map<Integer, String> getLoggerDeclarations(@NotNull PsiFile psiFile, @NotNull Map<String, String> importedCanonicalNames,
+                                                      @NotNull LoggerNameMatcher matcher) {
+        return JavaPsiHelper.getLoggerDeclarations((PsiJavaFile) psiFile, importedCanonicalNames, matcher);
+    }
+
+}
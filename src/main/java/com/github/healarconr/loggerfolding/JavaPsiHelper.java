@@ -2,13 +2,18 @@ package com.github.healarconr.loggerfolding;
 
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
-
-import static com.github.healarconr.loggerfolding.PsiHelper.isAnyCanonicalTextContainedInTheCanonicalNames;
+import java.util.Map;
 
 /**
  * Helper class to determine if a PsiElement represents a Java logger method call and to obtain the text range and
@@ -26,99 +31,408 @@ final class JavaPsiHelper {
     /**
      * Determines if a PsiElement represents a Java logger method call
      *
-     * @param element the element
-     * @param state   the state of the logger folding settings
-     * @return true if the element represents a method call on a class defined in {@link LoggerFoldingProjectSettings.State#getCanonicalNames()}
+     * @param element  the element
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return true if the element represents a method call on a logger class
      */
-    static boolean isALoggerMethodCall(@NotNull PsiElement element, LoggerFoldingProjectSettings.State state) {
+    static boolean isALoggerMethodCall(@NotNull PsiElement element, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        return getLoggerCanonicalName(element, snapshot) != null;
+    }
+
+    /**
+     * Returns the canonical name of the logger class of a PsiElement that represents a Java logger method call. The
+     * method call is matched in stages, from the cheapest to the most expensive one:
+     * <ol>
+     *     <li>Method calls without arguments or qualifier, with a qualifier that cannot be a logger or, if only known
+     *     logger classes are configured and subtypes are not matched, with a method name that they do not declare are
+     *     rejected</li>
+     *     <li>The qualifier text or its import statement is matched against the canonical names. A qualifier that
+     *     names an imported class that is not a logger class is rejected</li>
+     *     <li>The qualifier is resolved and looked up in the logger declarations of the file</li>
+     *     <li>The type of the qualifier is inferred and matched against the canonical names</li>
+     *     <li>If subtypes are matched, the super classes and interfaces of the type of the qualifier are matched
+     *     against the canonical names</li>
+     * </ol>
+     *
+     * @param element  the element
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return the canonical name that matched the method call or null if the element does not represent a logger method
+     * call
+     */
+    @Nullable
+    static String getLoggerCanonicalName(@NotNull PsiElement element, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        if (!(element instanceof PsiMethodCallExpression methodCallExpression)) {
+            return null;
+        }
+
+        LoggerNameMatcher matcher = snapshot.matcher();
+        PsiExpression qualifierExpression = getQualifierExpressionIfItCanBeALogger(methodCallExpression, matcher,
+                snapshot.matchSubtypes());
+        if (qualifierExpression == null) {
+            LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.JAVA_SYNTACTIC_REJECTIONS);
+            return null;
+        }
+
+        if (qualifierExpression instanceof PsiReferenceExpression referenceExpression) {
+            String canonicalText = getCanonicalTextFromReferenceExpression(referenceExpression);
+            if (canonicalText != null) {
+                if (matcher.matches(canonicalText)) {
+                    LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.JAVA_TEXTUAL_MATCHES);
+                    return canonicalText;
+                } else if (!referenceExpression.isQualified() && !snapshot.matchSubtypes()) {
+                    // The qualifier is an imported class that is not a logger class
+                    LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.JAVA_TEXTUAL_REJECTIONS);
+                    return null;
+                }
+            }
+        }
 
-        if (element instanceof PsiMethodCallExpression methodCallExpression) {
-            PsiExpressionList argumentList = methodCallExpression.getArgumentList();
-            PsiExpression[] expressions = argumentList.getExpressions();
-            if (expressions.length == 0) {
-                // Ignore method calls without arguments
-                return false;
+        if (qualifierExpression instanceof PsiReferenceExpression referenceExpression) {
+            PsiFile psiFile = element.getContainingFile();
+            if (LoggerDeclarations.hasAny(psiFile, snapshot)) {
+                LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.RESOLVES);
+                ResolveEvent qualifierResolveEvent = ResolveEvent.start(ResolveEvent.JAVA, "Qualifier resolution");
+                PsiElement declaration = referenceExpression.resolve();
+                qualifierResolveEvent.finish(declaration != null);
+                String canonicalName = declaration != null ? LoggerDeclarations.getCanonicalName(psiFile, snapshot,
+                        declaration) : null;
+                if (canonicalName != null) {
+                    LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.JAVA_DECLARATION_MATCHES);
+                    return canonicalName;
+                }
             }
-            PsiReferenceExpression methodExpression = methodCallExpression.getMethodExpression();
-            PsiExpression qualifierExpression = methodExpression.getQualifierExpression();
-            if (qualifierExpression != null) {
-                List<String> canonicalTexts = new LinkedList<>();
-                addCanonicalTextFromType(qualifierExpression, canonicalTexts);
-                addCanonicalTextFromReferenceExpression(qualifierExpression, canonicalTexts);
-                return isAnyCanonicalTextContainedInTheCanonicalNames(canonicalTexts, state.getCanonicalNames());
+        }
+
+        LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.RESOLVES);
+        ResolveEvent typeInferenceEvent = ResolveEvent.start(ResolveEvent.JAVA, "Qualifier type inference");
+        PsiType type = qualifierExpression.getType();
+        typeInferenceEvent.finish(type != null);
+        String canonicalText = type != null ? type.getCanonicalText() : null;
+        if (matcher.matches(canonicalText)) {
+            LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.JAVA_TYPE_MATCHES);
+            return canonicalText;
+        }
+
+        if (snapshot.matchSubtypes() && type instanceof PsiClassType classType) {
+            LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.RESOLVES);
+            ResolveEvent classResolveEvent = ResolveEvent.start(ResolveEvent.JAVA, "Qualifier class resolution");
+            PsiClass psiClass = classType.resolve();
+            classResolveEvent.finish(psiClass != null);
+            String loggerSuperClass = psiClass != null ? LoggerTypeHierarchy.findLoggerSuperClass(psiClass, matcher) : null;
+            if (loggerSuperClass != null) {
+                LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.JAVA_SUBTYPE_MATCHES);
+                return loggerSuperClass;
             }
         }
-        return false;
+        LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.JAVA_TYPE_REJECTIONS);
+        return null;
     }
 
     /**
-     * Adds the canonical text of the type of the qualifier expression to the canonical texts list
+     * Determines if the subtree of a PsiElement can contain method calls. Import and package statements, comments,
+     * literals, modifier lists, type elements and reference lists cannot contain them.
      *
-     * @param qualifierExpression the qualifier expression
-     * @param canonicalTexts      the canonical texts
+     * @param element the element
+     * @return false if the subtree of the element cannot contain method calls
      */
-    private static void addCanonicalTextFromType(PsiExpression qualifierExpression, List<String> canonicalTexts) {
-        PsiType type = qualifierExpression.getType();
-        if (type != null) {
-            canonicalTexts.add(type.getCanonicalText());
+    static boolean canContainMethodCalls(@NotNull PsiElement element) {
+
+        return !(element instanceof PsiImportList || element instanceof PsiPackageStatement || element instanceof PsiComment
+                || element instanceof PsiLiteralExpression || element instanceof PsiModifierList
+                || element instanceof PsiTypeElement || element instanceof PsiReferenceList);
+    }
+
+    /**
+     * Returns the statement, code block or field that contains a PsiElement
+     *
+     * @param element the element
+     * @return the innermost statement, code block or field that contains the element, or the element itself if it is
+     * one of them, or null if there is none
+     */
+    @Nullable
+    static PsiElement getEnclosingStatement(@NotNull PsiElement element) {
+
+        return PsiTreeUtil.getNonStrictParentOfType(element, PsiStatement.class, PsiCodeBlock.class, PsiField.class);
+    }
+
+    /**
+     * Returns the qualifier expression of a method call if the method call has arguments, the shape of the qualifier
+     * expression allows it to be a logger and the method name is not rejected by the matcher. A subtype of a logger
+     * class can declare any method, so the method name is not checked if subtypes are matched.
+     *
+     * @param methodCallExpression the method call expression
+     * @param matcher              the matcher of the canonical names of the logger classes
+     * @param matchSubtypes        true if the subtypes of the logger classes are also matched
+     * @return the qualifier expression or null if the method call cannot be a logger method call
+     */
+    @Nullable
+    private static PsiExpression getQualifierExpressionIfItCanBeALogger(PsiMethodCallExpression methodCallExpression,
+                                                                        LoggerNameMatcher matcher, boolean matchSubtypes) {
+
+        if (methodCallExpression.getArgumentList().getExpressionCount() == 0) {
+            // Ignore method calls without arguments
+            return null;
+        }
+        PsiReferenceExpression methodExpression = methodCallExpression.getMethodExpression();
+        PsiExpression qualifierExpression = methodExpression.getQualifierExpression();
+        if (qualifierExpression == null
+                || !matchSubtypes && matcher.isNonLoggerMethodName(methodExpression.getReferenceName())) {
+            return null;
         }
+        if (qualifierExpression instanceof PsiReferenceExpression || qualifierExpression instanceof PsiMethodCallExpression
+                || qualifierExpression instanceof PsiParenthesizedExpression || qualifierExpression instanceof PsiTypeCastExpression
+                || qualifierExpression instanceof PsiArrayAccessExpression || qualifierExpression instanceof PsiConditionalExpression
+                || qualifierExpression instanceof PsiThisExpression || qualifierExpression instanceof PsiSuperExpression) {
+            return qualifierExpression;
+        }
+        // Literals, instance creations, class object accesses, lambdas and operators are not loggers
+        return null;
     }
 
     /**
-     * Adds the canonical text of a reference expression to the canonical texts list. If the reference expression is qualified
-     * the canonical text if obtained directly from it, but if it is not qualified the canonical text is obtained from the import statement
+     * Returns the canonical text of a reference expression without resolving it. If the reference expression is
+     * qualified the canonical text is its text, but if it is not qualified the canonical text is obtained from the
+     * import statement
      *
-     * @param qualifierExpression the qualifier expression
-     * @param canonicalTexts      the canonical texts
+     * @param referenceExpression the reference expression
+     * @return the canonical text or null if the reference expression is not a qualified name nor an imported name
      */
-    private static void addCanonicalTextFromReferenceExpression(PsiExpression qualifierExpression, List<String> canonicalTexts) {
-        if (qualifierExpression instanceof PsiReferenceExpression referenceExpression) {
-            if (referenceExpression.isQualified()) {
-                canonicalTexts.add(referenceExpression.getCanonicalText());
-            } else {
-                addCanonicalTextFromImport(referenceExpression, canonicalTexts);
-            }
+    @Nullable
+    private static String getCanonicalTextFromReferenceExpression(PsiReferenceExpression referenceExpression) {
+        if (referenceExpression.isQualified()) {
+            String text = referenceExpression.getText();
+            return PsiHelper.isQualifiedName(text) ? text : null;
+        } else {
+            return getCanonicalTextFromImport(referenceExpression);
         }
     }
 
     /**
-     * Adds the canonical text of an import reference to the canonical texts list.
+     * Returns the canonical text of the import reference of a reference expression, looked up in the cached import
+     * table of the file
      *
      * @param referenceExpression the reference expression
-     * @param canonicalTexts      the canonical texts
+     * @return the canonical text or null if the reference expression is not imported
      */
-    private static void addCanonicalTextFromImport(PsiReferenceExpression referenceExpression, List<String> canonicalTexts) {
-        PsiJavaFile javaFile = (PsiJavaFile) referenceExpression.getContainingFile();
+    @Nullable
+    private static String getCanonicalTextFromImport(PsiReferenceExpression referenceExpression) {
+        String referenceName = referenceExpression.getReferenceName();
+        PsiFile psiFile = referenceExpression.getContainingFile();
+        return referenceName != null && psiFile != null ? ImportTable.getImportedCanonicalName(psiFile, referenceName) : null;
+    }
+
+    /**
+     * Returns the canonical name of the logger class of a PsiElement that represents a Java logger method call without
+     * resolving references. The qualifier of the method call is looked up in the variables declared in the file and in
+     * the import statements, so the result is an approximation that does not take scopes into account.
+     *
+     * @param element                the element
+     * @param variableCanonicalNames the canonical names of the declared types of the variables mapped by variable name
+     * @param importedCanonicalNames the imported canonical names mapped by simple name
+     * @return the canonical name of the class of the qualifier or null if it could not be obtained
+     */
+    @Nullable
+    static String getSyntacticLoggerCanonicalName(@NotNull PsiElement element, @NotNull Map<String, String> variableCanonicalNames,
+                                                  @NotNull Map<String, String> importedCanonicalNames) {
+
+        if (!(element instanceof PsiMethodCallExpression methodCallExpression)
+                || methodCallExpression.getArgumentList().getExpressionCount() == 0) {
+            return null;
+        }
+        PsiExpression qualifierExpression = methodCallExpression.getMethodExpression().getQualifierExpression();
+        if (!(qualifierExpression instanceof PsiReferenceExpression referenceExpression)) {
+            return null;
+        }
+        String referenceName = referenceExpression.getReferenceName();
+        if (referenceName == null) {
+            return null;
+        }
+        PsiElement qualifier = referenceExpression.getQualifier();
+        if (qualifier == null) {
+            return PsiHelper.getCanonicalNameFromReceiverName(referenceName, variableCanonicalNames, importedCanonicalNames);
+        } else if (qualifier instanceof PsiThisExpression) {
+            return variableCanonicalNames.get(referenceName);
+        }
+        return PsiHelper.getCanonicalNameFromTypeText(referenceExpression.getText(), Collections.emptyMap());
+    }
+
+    /**
+     * Returns the name of the receiver of a PsiElement that represents a Java method call with arguments whose
+     * qualifier is a simple name, optionally qualified by {@code this}
+     *
+     * @param element the element
+     * @return the receiver name or null if the element does not represent such a method call
+     */
+    @Nullable
+    static String getReceiverName(@NotNull PsiElement element) {
+
+        if (!(element instanceof PsiMethodCallExpression methodCallExpression)
+                || methodCallExpression.getArgumentList().getExpressionCount() == 0) {
+            return null;
+        }
+        PsiExpression qualifierExpression = methodCallExpression.getMethodExpression().getQualifierExpression();
+        if (!(qualifierExpression instanceof PsiReferenceExpression referenceExpression)) {
+            return null;
+        }
+        PsiElement qualifier = referenceExpression.getQualifier();
+        return qualifier == null || qualifier instanceof PsiThisExpression ? referenceExpression.getReferenceName() : null;
+    }
+
+    /**
+     * Returns the canonical names of the classes imported by the single type import statements of a Java file
+     *
+     * @param javaFile the Java file
+     * @return the imported canonical names mapped by simple name
+     */
+    @NotNull
+    static Map<String, String> getImportedCanonicalNames(@NotNull PsiJavaFile javaFile) {
+
+        Map<String, String> importedCanonicalNames = new HashMap<>();
         PsiImportList importList = javaFile.getImportList();
         if (importList != null) {
-            PsiImportStatementBase importStatement = importList
-                    .findSingleImportStatement(referenceExpression.getReferenceName());
-            if (importStatement != null) {
-                PsiJavaCodeReferenceElement importReference = importStatement.getImportReference();
-                if (importReference != null) {
-                    canonicalTexts.add(importReference.getCanonicalText());
+            for (PsiImportStatement importStatement : importList.getImportStatements()) {
+                String qualifiedName = importStatement.getQualifiedName();
+                if (qualifiedName != null && !importStatement.isOnDemand()) {
+                    importedCanonicalNames.put(PsiHelper.getSimpleName(qualifiedName), qualifiedName);
                 }
             }
         }
+        return importedCanonicalNames;
     }
 
     /**
-     * Returns the text range that starts at the start offset of the provided element and ends at the end offset of the semicolon
-     * next to it
+     * Returns the canonical names of the declared types of the fields of the classes of a Java file obtained from the
+     * type texts without resolving references
      *
-     * @param element the element
-     * @return the text range
+     * @param javaFile               the Java file
+     * @param importedCanonicalNames the imported canonical names mapped by simple name
+     * @return the canonical names mapped by field name
+     */
+    @NotNull
+    static Map<String, String> getVariableCanonicalNames(@NotNull PsiJavaFile javaFile, @NotNull Map<String, String> importedCanonicalNames) {
+
+        Map<String, String> variableCanonicalNames = new HashMap<>();
+        for (PsiField field : getFields(javaFile)) {
+            PsiTypeElement typeElement = field.getTypeElement();
+            String name = field.getName();
+            if (typeElement != null) {
+                String canonicalName = PsiHelper.getCanonicalNameFromTypeText(typeElement.getText(), importedCanonicalNames);
+                if (canonicalName != null) {
+                    variableCanonicalNames.put(name, canonicalName);
+                }
+            }
+        }
+        return variableCanonicalNames;
+    }
+
+    /**
+     * Returns the fields of the classes of a Java file whose declared type is matched by the matcher, obtained from the
+     * type texts without resolving references
+     *
+     * @param javaFile               the Java file
+     * @param importedCanonicalNames the imported canonical names mapped by simple name
+     * @param matcher                the matcher of the canonical names of the logger classes
+     * @return the canonical names of the logger classes mapped by the start offset of the field
+     */
+    @NotNull
+    static Map<Integer, String> getLoggerDeclarations(@NotNull PsiJavaFile javaFile, @NotNull Map<String, String> importedCanonicalNames,
+                                                         @NotNull LoggerNameMatcher matcher) {
+
+        Map<Integer, String> loggerDeclarations = new HashMap<>();
+        for (PsiField field : getFields(javaFile)) {
+            PsiTypeElement typeElement = field.getTypeElement();
+            if (typeElement != null) {
+                String canonicalName = PsiHelper.getCanonicalNameFromTypeText(typeElement.getText(), importedCanonicalNames);
+                if (matcher.matches(canonicalName)) {
+                    loggerDeclarations.put(field.getTextRange().getStartOffset(), canonicalName);
+                }
+            }
+        }
+        return loggerDeclarations;
+    }
+
+    /**
+     * Returns the fields of the top level classes of a Java file and of their inner classes, without walking the method
+     * bodies
+     *
+     * @param javaFile the Java file
+     * @return the fields
      */
     @NotNull
-    static TextRange getTextRange(@NotNull PsiElement element) {
+    private static List<PsiField> getFields(@NotNull PsiJavaFile javaFile) {
+
+        List<PsiField> fields = new ArrayList<>();
+        Deque<PsiClass> classes = new ArrayDeque<>(Arrays.asList(javaFile.getClasses()));
+        while (!classes.isEmpty()) {
+            PsiClass psiClass = classes.poll();
+            Collections.addAll(fields, psiClass.getFields());
+            Collections.addAll(classes, psiClass.getInnerClasses());
+        }
+        return fields;
+    }
+
+    /**
+     * Creates the call site of a Java logger method call. The fold region starts at the start offset of the method call
+     * and ends at the end offset of the semicolon next to it, which is looked up once for both the text range and the
+     * placeholder text.
+     *
+     * @param element       the method call expression
+     * @param canonicalName the canonical name of the logger class or null if the method call was detected by the name
+     *                      of its receiver
+     * @return the call site
+     */
+    @NotNull
+    static LoggerCallSite createCallSite(@NotNull PsiElement element, @Nullable String canonicalName) {
 
         TextRange textRange = element.getTextRange();
         PsiElement semicolon = findSemicolonNextTo(element);
-        if (semicolon == null) {
-            return textRange;
-        } else {
-            return textRange.union(semicolon.getTextRange());
-        }
+        int endOffset = semicolon != null ? semicolon.getTextRange().getEndOffset() : textRange.getEndOffset();
+        String placeholderText = PlaceholderTexts.formatJavaMethodCall(
+                ((PsiMethodCallExpression) element).getMethodExpression().getText(), semicolon != null);
+        return new LoggerCallSite(textRange.getStartOffset(), textRange.getEndOffset(), endOffset, placeholderText,
+                canonicalName);
+    }
+
+    /**
+     * Finds the method call expression of a call site in a Java file
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the method call expression or null if the file was modified after the call site was detected
+     */
+    @Nullable
+    static PsiMethodCallExpression findMethodCall(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        return PsiTreeUtil.findElementOfClassAtRange(psiFile, callSite.startOffset(), callSite.elementEndOffset(),
+                PsiMethodCallExpression.class);
+    }
+
+    /**
+     * Returns the name of the method of a call site in a Java file
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the method name or null if the file was modified after the call site was detected
+     */
+    @Nullable
+    static String getMethodName(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        PsiMethodCallExpression methodCall = findMethodCall(psiFile, callSite);
+        return methodCall != null ? getMethodName(methodCall) : null;
+    }
+
+    /**
+     * Returns the name of the method of a PsiElement that represents a Java method call
+     *
+     * @param element the element
+     * @return the method name or null if the element does not represent a method call
+     */
+    @Nullable
+    static String getMethodName(@NotNull PsiElement element) {
+
+        return element instanceof PsiMethodCallExpression methodCall ? methodCall.getMethodExpression().getReferenceName() : null;
     }
 
     /**
@@ -150,9 +464,8 @@ final class JavaPsiHelper {
     static String getPlaceholderText(@NotNull PsiElement element) {
 
         PsiMethodCallExpression methodCallExpression = (PsiMethodCallExpression) element;
-        PsiElement semicolon = findSemicolonNextTo(element);
-        //noinspection UnnecessaryUnicodeEscape
-        return methodCallExpression.getMethodExpression().getText() + "(\u2026)" + (semicolon != null ? ";" : "");
+        return PlaceholderTexts.formatJavaMethodCall(methodCallExpression.getMethodExpression().getText(),
+                findSemicolonNextTo(element) != null);
     }
 
 }
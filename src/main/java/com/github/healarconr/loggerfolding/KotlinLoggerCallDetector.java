@@ -0,0 +1,113 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.psi.KtFile;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Detector of the Kotlin logger method calls based on {@link KotlinPsiHelper}
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class KotlinLoggerCallDetector implements LoggerCallDetector {
+
+    @Override
+    public boolean isApplicable(@NotNull PsiFile psiFile) {
+        return psiFile instanceof KtFile;
+    }
+
+    @Override
+    public boolean canContainMethodCalls(@NotNull PsiElement element) {
+        return KotlinPsiHelper.canContainMethodCalls(element);
+    }
+
+    @NotNull
+    @Override
+    public Function<PsiElement, LoggerCallSite> createDetector(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        return element -> {
+            String canonicalName = KotlinPsiHelper.getLoggerCanonicalName(element, snapshot);
+            return canonicalName == null ? null :
+                    LoggerCallSites.createCallSite(element, canonicalName, KotlinPsiHelper::createCallSite);
+        };
+    }
+
+    @NotNull
+    @Override
+    public Function<PsiElement, LoggerCallSite> createSyntacticDetector(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        LoggerNameMatcher matcher = snapshot.matcher();
+        Set<String> receiverNames = snapshot.receiverNames();
+        Map<String, String> importedCanonicalNames = ImportTable.getImportedCanonicalNames(psiFile);
+        Map<String, String> variableCanonicalNames = KotlinPsiHelper.getVariableCanonicalNames(psiFile,
+                importedCanonicalNames);
+        return element -> {
+            String canonicalName = KotlinPsiHelper.getSyntacticLoggerCanonicalName(element, variableCanonicalNames,
+                    importedCanonicalNames);
+            if (canonicalName != null ? !matcher.matches(canonicalName) :
+                    !receiverNames.contains(KotlinPsiHelper.getReceiverName(element))) {
+                return null;
+            }
+            return LoggerCallSites.createCallSite(element, canonicalName, KotlinPsiHelper::createCallSite);
+        };
+    }
+
+    @NotNull
+    @Override
+    public Function<PsiElement, LoggerCallSite> createIndexDetector(@NotNull PsiFile psiFile) {
+
+        Map<String, String> importedCanonicalNames = KotlinPsiHelper.getImportedCanonicalNames(psiFile);
+        Map<String, String> variableCanonicalNames = KotlinPsiHelper.getVariableCanonicalNames(psiFile,
+                importedCanonicalNames);
+        return element -> {
+            String canonicalName = KotlinPsiHelper.getSyntacticLoggerCanonicalName(element, variableCanonicalNames,
+                    importedCanonicalNames);
+            return canonicalName == null || !LoggerNameMatcher.isIndexable(canonicalName,
+                    KotlinPsiHelper.getMethodName(element)) ? null : KotlinPsiHelper.createCallSite(element, canonicalName);
+        };
+    }
+
+    @Nullable
+    @Override
+    public PsiElement getEnclosingStatement(@NotNull PsiElement element) {
+        return KotlinPsiHelper.getEnclosingStatement(element);
+    }
+
+    @Nullable
+    @Override
+    public PsiElement findMethodCall(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+        return KotlinPsiHelper.findMethodCall(psiFile, callSite);
+    }
+
+    @Nullable
+    @Override
+    public String getMethodName(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+        return KotlinPsiHelper.getMethodName(psiFile, callSite);
+    }
+
+    @Nullable
+    @Override
+    public String getPlaceholderText(@NotNull PsiElement methodCall) {
+        return KotlinPsiHelper.getPlaceholderText(methodCall);
+    }
+
+    @NotNull
+    @Override
+    public Map<String, String> getImportedCanonicalNames(@NotNull PsiFile psiFile) {
+        return KotlinPsiHelper.getImportedCanonicalNames(psiFile);
+    }
+
+    @NotNull
+    @Override
+    public Map<Integer, String> getLoggerDeclarations(@NotNull PsiFile psiFile, @NotNull Map<String, String> importedCanonicalNames,
+                                                      @NotNull LoggerNameMatcher matcher) {
+        return KotlinPsiHelper.getLoggerDeclarations(psiFile, importedCanonicalNames, matcher);
+    }
+
+}
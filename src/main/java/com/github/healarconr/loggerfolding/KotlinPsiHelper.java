@@ -1,14 +1,32 @@
 package com.github.healarconr.loggerfolding;
 
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiUtil;
+import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.asJava.LightClassUtilKt;
+import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.psi.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Helper class to determine if a PsiElement represents a Kotlin logger method call and to obtain the text range and
@@ -18,6 +36,9 @@ import java.util.List;
  */
 final class KotlinPsiHelper {
 
+    private static final Key<CachedValue<List<String>>> CANONICAL_NAMES_KEY = Key.create("LoggerFolding.kotlinCanonicalNames");
+    private static final Key<CachedValue<PsiClass>> DECLARED_CLASS_KEY = Key.create("LoggerFolding.kotlinDeclaredClass");
+
     private KotlinPsiHelper() {
 
         super();
@@ -26,20 +47,37 @@ final class KotlinPsiHelper {
     /**
      * Determines if a PsiElement represents a Kotlin logger method call
      *
-     * @param element the element
-     * @param state   the state of the logger folding settings
-     * @return true if the element represents a method call on a class defined in {@link LoggerFoldingProjectSettings.State#getCanonicalNames()}
+     * @param element  the element
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return true if the element represents a method call on a logger class
+     */
+    static boolean isALoggerMethodCall(@NotNull PsiElement element, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        return getLoggerCanonicalName(element, snapshot) != null;
+    }
+
+    /**
+     * Returns the canonical name of the logger class of a PsiElement that represents a Kotlin logger method call. The
+     * receiver is resolved and looked up in the logger declarations of the file first, then the declared type of the
+     * receiver is matched and, if subtypes are matched and it is not a logger class, its super classes and interfaces
+     * are matched too.
+     *
+     * @param element  the element
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return the canonical name that matched the method call or null if the element does not represent a logger method
+     * call
      */
-    static boolean isALoggerMethodCall(@NotNull PsiElement element, LoggerFoldingProjectSettings.State state) {
+    @Nullable
+    static String getLoggerCanonicalName(@NotNull PsiElement element, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
 
         if (!(element instanceof KtDotQualifiedExpression dotQualifiedExpression)) {
-            return false;
+            return null;
         }
 
         KtExpression selectorExpression = dotQualifiedExpression.getSelectorExpression();
 
         if (!(selectorExpression instanceof KtCallExpression)) {
-            return false;
+            return null;
         }
 
         KtExpression receiverExpression = dotQualifiedExpression.getReceiverExpression();
@@ -58,23 +96,180 @@ final class KotlinPsiHelper {
         }
 
         if (referenceExpression == null) {
-            return false;
+            return null;
         }
 
         PsiReference[] references = referenceExpression.getReferences();
 
         PsiElement resolvedReference = resolveReference(references);
 
-        List<String> canonicalNames = new LinkedList<>();
+        if (!(resolvedReference instanceof KtProperty) && !(resolvedReference instanceof KtParameter)) {
+            return null;
+        }
+
+        String canonicalName = LoggerDeclarations.getCanonicalName(element.getContainingFile(), snapshot, resolvedReference);
+        if (canonicalName != null) {
+            return canonicalName;
+        }
+
+        KtCallableDeclaration declaration = (KtCallableDeclaration) resolvedReference;
+        LoggerNameMatcher matcher = snapshot.matcher();
+
+        canonicalName = matcher.findMatch(getCanonicalNames(declaration));
+        if (canonicalName == null && snapshot.matchSubtypes()) {
+            PsiClass declaredClass = getDeclaredClass(declaration);
+            if (declaredClass != null) {
+                canonicalName = LoggerTypeHierarchy.findLoggerSuperClass(declaredClass, matcher);
+            }
+        }
+        return canonicalName;
+    }
+
+    /**
+     * Determines if the subtree of a PsiElement can contain method calls. Import lists, package directives, comments,
+     * constants, annotation entries and type references cannot contain them.
+     *
+     * @param element the element
+     * @return false if the subtree of the element cannot contain method calls
+     */
+    static boolean canContainMethodCalls(@NotNull PsiElement element) {
+
+        return !(element instanceof KtImportList || element instanceof KtPackageDirective || element instanceof PsiComment
+                || element instanceof KtConstantExpression || element instanceof KtAnnotationEntry
+                || element instanceof KtTypeReference);
+    }
+
+    /**
+     * Returns the statement or declaration that contains a PsiElement, i.e. its ancestor whose parent is a block, a class
+     * body or the file
+     *
+     * @param element the element
+     * @return the outermost ancestor of the element that is a statement or declaration, or the element itself if it
+     * is one, or null if the element is a file
+     */
+    @Nullable
+    static PsiElement getEnclosingStatement(@NotNull PsiElement element) {
 
-        if (resolvedReference instanceof KtProperty property) {
-            canonicalNames.addAll(getCanonicalNamesFromProperty(property));
-        } else if (resolvedReference instanceof KtParameter parameter) {
-            canonicalNames.addAll(getCanonicalNamesFromParameter(parameter));
+        if (element instanceof PsiFile) {
+            return null;
+        }
+        PsiElement statement = element;
+        PsiElement parent = statement.getParent();
+        while (parent != null && !(parent instanceof KtBlockExpression || parent instanceof KtClassBody
+                || parent instanceof PsiFile)) {
+            statement = parent;
+            parent = statement.getParent();
         }
+        return statement;
+    }
 
-        return PsiHelper.isAnyCanonicalTextContainedInTheCanonicalNames(canonicalNames, state
-                .getCanonicalNames());
+    /**
+     * Returns the canonical names of a property or a parameter. The canonical names are cached per declaration and the
+     * cache is invalidated when the PSI is modified, so the resolution is performed once per declaration even if it is
+     * used as the receiver of many method calls.
+     *
+     * @param declaration the property or parameter
+     * @return an unmodifiable list of canonical names
+     */
+    private static List<String> getCanonicalNames(KtCallableDeclaration declaration) {
+
+        return CachedValuesManager.getCachedValue(declaration, CANONICAL_NAMES_KEY, () -> {
+            List<String> canonicalNames = new ArrayList<>(declaration instanceof KtProperty property ?
+                    getCanonicalNamesFromProperty(property) : getCanonicalNamesFromParameter((KtParameter) declaration));
+            canonicalNames.removeIf(Objects::isNull);
+            return CachedValueProvider.Result.create(Collections.unmodifiableList(canonicalNames),
+                    PsiModificationTracker.getInstance(declaration.getProject()));
+        });
+    }
+
+    /**
+     * Returns the class of the declared type of a property or a parameter. The class is cached per declaration and the
+     * cache is invalidated when the PSI is modified.
+     *
+     * @param declaration the property or parameter
+     * @return the class, or the light class of a Kotlin class, or null if it could not be resolved
+     */
+    @Nullable
+    private static PsiClass getDeclaredClass(KtCallableDeclaration declaration) {
+
+        return CachedValuesManager.getCachedValue(declaration, DECLARED_CLASS_KEY,
+                () -> CachedValueProvider.Result.create(computeDeclaredClass(declaration),
+                        PsiModificationTracker.getInstance(declaration.getProject())));
+    }
+
+    /**
+     * Resolves the class of the declared type of a property or a parameter. If the declaration has no type reference,
+     * the class is obtained from the constructor or function call used to initialize the property.
+     *
+     * @param declaration the property or parameter
+     * @return the class, or the light class of a Kotlin class, or null if it could not be resolved
+     */
+    @Nullable
+    private static PsiClass computeDeclaredClass(KtCallableDeclaration declaration) {
+
+        KtTypeReference typeReference = declaration.getTypeReference();
+        if (typeReference != null) {
+            return resolveTypeReference(typeReference);
+        }
+
+        KtReferenceExpression referenceExpression = null;
+
+        if (declaration instanceof KtProperty property) {
+            KtExpression initializer = property.getInitializer();
+            if (initializer instanceof KtDotQualifiedExpression dotQualifiedExpression) {
+                initializer = dotQualifiedExpression.getSelectorExpression();
+            }
+            if (initializer instanceof KtCallExpression callExpression
+                    && callExpression.getCalleeExpression() instanceof KtReferenceExpression calleeExpression) {
+                referenceExpression = calleeExpression;
+            }
+        }
+
+        if (referenceExpression == null) {
+            return null;
+        }
+
+        return toClass(resolveReference(referenceExpression.getReferences()));
+    }
+
+    /**
+     * Resolves the class of a type reference
+     *
+     * @param typeReference the type reference
+     * @return the class, or the light class of a Kotlin class, or null if it could not be resolved
+     */
+    @Nullable
+    private static PsiClass resolveTypeReference(KtTypeReference typeReference) {
+
+        KtTypeElement typeElement = typeReference.getTypeElement();
+        if (typeElement instanceof KtNullableType nullableType) {
+            typeElement = nullableType.getInnerType();
+        }
+        if (!(typeElement instanceof KtUserType userType) || userType.getReferenceExpression() == null) {
+            return null;
+        }
+        return toClass(resolveReference(userType.getReferenceExpression().getReferences()));
+    }
+
+    /**
+     * Returns the class of a resolved reference: the class itself, the class of a constructor or the class of the
+     * return type of a method
+     *
+     * @param resolvedReference the resolved reference PSI element
+     * @return the class, or the light class of a Kotlin class, or null if it is not a class, a constructor or a method
+     */
+    @Nullable
+    private static PsiClass toClass(@Nullable PsiElement resolvedReference) {
+
+        if (resolvedReference instanceof KtConstructor<?> constructor) {
+            resolvedReference = constructor.getContainingClassOrObject();
+        } else if (resolvedReference instanceof PsiMethod method) {
+            return method.isConstructor() ? method.getContainingClass() : PsiUtil.resolveClassInType(method.getReturnType());
+        }
+        if (resolvedReference instanceof KtClassOrObject classOrObject) {
+            return LightClassUtilKt.toLightClass(classOrObject);
+        }
+        return resolvedReference instanceof PsiClass psiClass ? psiClass : null;
     }
 
     /**
@@ -86,7 +281,10 @@ final class KotlinPsiHelper {
     private static PsiElement resolveReference(PsiReference[] references) {
 
         for (PsiReference reference : references) {
+            LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.RESOLVES);
+            ResolveEvent resolveEvent = ResolveEvent.start(ResolveEvent.KOTLIN, "Reference resolution");
             PsiElement resolvedReference = reference.resolve();
+            resolveEvent.finish(resolvedReference != null);
             if (resolvedReference != null) {
                 return resolvedReference;
             }
@@ -107,7 +305,7 @@ final class KotlinPsiHelper {
         KtTypeReference typeReference = property.getTypeReference();
 
         if (typeReference != null) {
-            canonicalNames.add(typeReference.getText());
+            canonicalNames.add(getCanonicalNameFromTypeReference(typeReference));
         } else {
             canonicalNames.add(getCanonicalNameFromPropertyCallExpression(property));
             canonicalNames.add(getCanonicalNameFromPropertyDotQualifiedExpression(property));
@@ -130,45 +328,27 @@ final class KotlinPsiHelper {
             return Collections.emptyList();
         }
 
-        String text = typeReference.getText();
-        if (text.contains(".")) {
-            return Collections.singletonList(text);
-        }
-
-        KtTypeElement typeElement = typeReference.getTypeElement();
-
-        if (typeElement == null) {
-            return Collections.emptyList();
-        }
-
-        KtReferenceExpression referenceExpression = null;
-
-        PsiElement[] children = typeElement.getChildren();
-        for (PsiElement child : children) {
-            if (child instanceof KtReferenceExpression) {
-                referenceExpression = (KtReferenceExpression) child;
-            }
-        }
-
-        if (referenceExpression == null) {
-            return Collections.emptyList();
-        }
-
-        PsiReference[] references = referenceExpression.getReferences();
+        return Collections.singletonList(getCanonicalNameFromTypeReference(typeReference));
+    }
 
-        PsiElement resolvedReference = resolveReference(references);
+    /**
+     * Returns the canonical name of a type reference. A qualified name is taken as it is and a simple name is looked up
+     * in the cached import table of the file that contains the type reference. Otherwise, as for the classes of the same
+     * package or imported on demand, the type reference is resolved.
+     *
+     * @param typeReference the type reference
+     * @return the canonical name or null if the type reference could not be resolved
+     */
+    @Nullable
+    private static String getCanonicalNameFromTypeReference(KtTypeReference typeReference) {
 
-        if (!(resolvedReference instanceof KtClass type)) {
-            return Collections.emptyList();
+        String canonicalName = PsiHelper.getCanonicalNameFromTypeText(typeReference.getText(),
+                ImportTable.getImportedCanonicalNames(typeReference.getContainingFile()));
+        if (canonicalName != null) {
+            return canonicalName;
         }
-        StringBuilder canonicalName = new StringBuilder();
-        String packageName = type.getContainingKtFile().getPackageFqName().asString();
-        if (!packageName.isEmpty()) {
-            canonicalName.append(packageName);
-            canonicalName.append(".");
-        }
-        canonicalName.append(typeReference.getText());
-        return Collections.singletonList(canonicalName.toString());
+        PsiClass psiClass = resolveTypeReference(typeReference);
+        return psiClass != null ? psiClass.getQualifiedName() : null;
     }
 
     /**
@@ -214,7 +394,7 @@ final class KotlinPsiHelper {
             return null;
         }
 
-        return typeReference.getText();
+        return getCanonicalNameFromTypeReference(typeReference);
     }
 
     /**
@@ -275,21 +455,207 @@ final class KotlinPsiHelper {
             return null;
         }
 
-        return typeReference.getText();
+        return getCanonicalNameFromTypeReference(typeReference);
     }
 
 
     /**
-     * Returns the text range of the received element
-     * next to it
+     * Returns the canonical name of the logger class of a PsiElement that represents a Kotlin logger method call without
+     * resolving references. The receiver of the method call is looked up in the properties and parameters declared in
+     * the file and in the import directives, so the result is an approximation that does not take scopes into account.
+     *
+     * @param element                the element
+     * @param variableCanonicalNames the canonical names of the declared types of the properties and parameters mapped
+     *                               by name
+     * @param importedCanonicalNames the imported canonical names mapped by simple name or alias
+     * @return the canonical name of the class of the receiver or null if it could not be obtained
+     */
+    @Nullable
+    static String getSyntacticLoggerCanonicalName(@NotNull PsiElement element, @NotNull Map<String, String> variableCanonicalNames,
+                                                  @NotNull Map<String, String> importedCanonicalNames) {
+
+        if (!(element instanceof KtDotQualifiedExpression dotQualifiedExpression)
+                || !(dotQualifiedExpression.getSelectorExpression() instanceof KtCallExpression)) {
+            return null;
+        }
+
+        KtExpression receiverExpression = dotQualifiedExpression.getReceiverExpression();
+
+        if (receiverExpression instanceof KtNameReferenceExpression nameReferenceExpression) {
+            return PsiHelper.getCanonicalNameFromReceiverName(nameReferenceExpression.getReferencedName(),
+                    variableCanonicalNames, importedCanonicalNames);
+        } else if (receiverExpression instanceof KtDotQualifiedExpression receiverDotQualifiedExpression) {
+            if (receiverDotQualifiedExpression.getReceiverExpression() instanceof KtThisExpression) {
+                if (receiverDotQualifiedExpression.getSelectorExpression() instanceof KtNameReferenceExpression nameReferenceExpression) {
+                    return variableCanonicalNames.get(nameReferenceExpression.getReferencedName());
+                }
+                return null;
+            }
+            return PsiHelper.getCanonicalNameFromTypeText(receiverExpression.getText(), Collections.emptyMap());
+        }
+        return null;
+    }
+
+    /**
+     * Returns the name of the receiver of a PsiElement that represents a Kotlin method call whose receiver is a simple
+     * name, optionally qualified by {@code this}
      *
      * @param element the element
-     * @return the text range
+     * @return the receiver name or null if the element does not represent such a method call
+     */
+    @Nullable
+    static String getReceiverName(@NotNull PsiElement element) {
+
+        if (!(element instanceof KtDotQualifiedExpression dotQualifiedExpression)
+                || !(dotQualifiedExpression.getSelectorExpression() instanceof KtCallExpression)) {
+            return null;
+        }
+
+        KtExpression receiverExpression = dotQualifiedExpression.getReceiverExpression();
+
+        if (receiverExpression instanceof KtNameReferenceExpression nameReferenceExpression) {
+            return nameReferenceExpression.getReferencedName();
+        } else if (receiverExpression instanceof KtDotQualifiedExpression receiverDotQualifiedExpression
+                && receiverDotQualifiedExpression.getReceiverExpression() instanceof KtThisExpression
+                && receiverDotQualifiedExpression.getSelectorExpression() instanceof KtNameReferenceExpression nameReferenceExpression) {
+            return nameReferenceExpression.getReferencedName();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the canonical names of the classes imported by the import directives of a Kotlin file
+     *
+     * @param psiFile the Kotlin PSI file
+     * @return the imported canonical names mapped by simple name or alias
      */
     @NotNull
-    static TextRange getTextRange(@NotNull PsiElement element) {
+    static Map<String, String> getImportedCanonicalNames(@NotNull PsiFile psiFile) {
+
+        Map<String, String> importedCanonicalNames = new HashMap<>();
+        for (KtImportDirective importDirective : ((KtFile) psiFile).getImportDirectives()) {
+            FqName importedFqName = importDirective.getImportedFqName();
+            if (importedFqName != null && !importDirective.isAllUnder()) {
+                String aliasName = importDirective.getAliasName();
+                importedCanonicalNames.put(aliasName != null ? aliasName : importedFqName.shortName().asString(),
+                        importedFqName.asString());
+            }
+        }
+        return importedCanonicalNames;
+    }
+
+    /**
+     * Returns the properties and parameters of a Kotlin file whose declared type is matched by the matcher, obtained
+     * from the type references without resolving them
+     *
+     * @param psiFile                the Kotlin PSI file
+     * @param importedCanonicalNames the imported canonical names mapped by simple name or alias
+     * @param matcher                the matcher of the canonical names of the logger classes
+     * @return the canonical names of the logger classes mapped by the start offset of the property or parameter
+     */
+    @NotNull
+    static Map<Integer, String> getLoggerDeclarations(@NotNull PsiFile psiFile, @NotNull Map<String, String> importedCanonicalNames,
+                                                         @NotNull LoggerNameMatcher matcher) {
+
+        Map<Integer, String> loggerDeclarations = new HashMap<>();
+        for (KtCallableDeclaration declaration : PsiTreeUtil.<KtCallableDeclaration>findChildrenOfAnyType(psiFile,
+                KtProperty.class, KtParameter.class)) {
+            KtTypeReference typeReference = declaration.getTypeReference();
+            if (typeReference != null) {
+                String canonicalName = PsiHelper.getCanonicalNameFromTypeText(typeReference.getText(), importedCanonicalNames);
+                if (matcher.matches(canonicalName)) {
+                    loggerDeclarations.put(declaration.getTextRange().getStartOffset(), canonicalName);
+                }
+            }
+        }
+        return loggerDeclarations;
+    }
 
-        return element.getTextRange();
+    /**
+     * Returns the canonical names of the declared types of the properties and parameters of a Kotlin file obtained from
+     * the type references without resolving them
+     *
+     * @param psiFile                the Kotlin PSI file
+     * @param importedCanonicalNames the imported canonical names mapped by simple name or alias
+     * @return the canonical names mapped by property or parameter name
+     */
+    @NotNull
+    static Map<String, String> getVariableCanonicalNames(@NotNull PsiFile psiFile, @NotNull Map<String, String> importedCanonicalNames) {
+
+        Map<String, String> variableCanonicalNames = new HashMap<>();
+        for (KtCallableDeclaration declaration : PsiTreeUtil.<KtCallableDeclaration>findChildrenOfAnyType(psiFile,
+                KtProperty.class, KtParameter.class)) {
+            KtTypeReference typeReference = declaration.getTypeReference();
+            String name = declaration.getName();
+            if (typeReference != null && name != null) {
+                String canonicalName = PsiHelper.getCanonicalNameFromTypeText(typeReference.getText(), importedCanonicalNames);
+                if (canonicalName != null) {
+                    variableCanonicalNames.put(name, canonicalName);
+                }
+            }
+        }
+        return variableCanonicalNames;
+    }
+
+    /**
+     * Creates the call site of a Kotlin logger method call. The fold region is the text range of the method call.
+     *
+     * @param element       the method call expression
+     * @param canonicalName the canonical name of the logger class or null if the method call was detected by the name
+     *                      of its receiver
+     * @return the call site
+     */
+    @NotNull
+    static LoggerCallSite createCallSite(@NotNull PsiElement element, @Nullable String canonicalName) {
+
+        TextRange textRange = element.getTextRange();
+        return new LoggerCallSite(textRange.getStartOffset(), textRange.getEndOffset(), textRange.getEndOffset(),
+                getPlaceholderText(element), canonicalName);
+    }
+
+    /**
+     * Finds the method call expression of a call site in a Kotlin file
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the method call expression or null if the file was modified after the call site was detected
+     */
+    @Nullable
+    static PsiElement findMethodCall(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        return PsiTreeUtil.findElementOfClassAtRange(psiFile, callSite.startOffset(), callSite.elementEndOffset(),
+                KtDotQualifiedExpression.class);
+    }
+
+    /**
+     * Returns the name of the method of a call site in a Kotlin file
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the method name or null if the file was modified after the call site was detected
+     */
+    @Nullable
+    static String getMethodName(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        PsiElement methodCall = findMethodCall(psiFile, callSite);
+        return methodCall != null ? getMethodName(methodCall) : null;
+    }
+
+    /**
+     * Returns the name of the method of a PsiElement that represents a Kotlin method call with a receiver
+     *
+     * @param element the element
+     * @return the method name or null if the element does not represent such a method call
+     */
+    @Nullable
+    static String getMethodName(@NotNull PsiElement element) {
+
+        if (element instanceof KtDotQualifiedExpression dotQualifiedExpression
+                && dotQualifiedExpression.getSelectorExpression() instanceof KtCallExpression callExpression) {
+            KtExpression calleeExpression = callExpression.getCalleeExpression();
+            return calleeExpression != null ? calleeExpression.getText() : null;
+        }
+        return null;
     }
 
     /**
@@ -298,7 +664,6 @@ final class KotlinPsiHelper {
      * @param element the method call expression
      * @return the element text replacing the value argument list with "(…)" and the lambda argument with "{…}"
      */
-    @SuppressWarnings("UnnecessaryUnicodeEscape")
     @NotNull
     static String getPlaceholderText(@NotNull PsiElement element) {
 
@@ -318,9 +683,9 @@ final class KotlinPsiHelper {
 
             for (PsiElement child : children) {
                 if (child instanceof KtValueArgumentList) {
-                    placeholderText.append("(\u2026)");
+                    placeholderText.append(PlaceholderTexts.ARGUMENTS);
                 } else if (child instanceof KtLambdaArgument) {
-                    placeholderText.append("{\u2026}");
+                    placeholderText.append(PlaceholderTexts.LAMBDA);
                 } else {
                     placeholderText.append(child.getText());
                 }
@@ -0,0 +1,299 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.EditorFactoryEvent;
+import com.intellij.openapi.editor.event.EditorFactoryListener;
+import com.intellij.openapi.editor.event.VisibleAreaEvent;
+import com.intellij.openapi.editor.event.VisibleAreaListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Folds the logger method calls of very large files as they become visible when collapse by default is enabled. The
+ * folding builders skip the files with more lines than the configured threshold, and the lines of those files are
+ * folded in chunks: the chunks of the visible area plus one chunk above and below it are checked in a background read
+ * action when the visible area of an editor changes, so the time to the first fold does not depend on the size of the
+ * file. A chunk is marked as checked only when its fold regions are applied, so the chunks of a check that is cancelled
+ * by a newer one are checked again.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@Service(Service.Level.PROJECT)
+public final class LazyLoggerFolding implements Disposable {
+
+    private static final int LINES_PER_CHUNK = 500;
+
+    /**
+     * Lazy folding state of an editor
+     */
+    private static final Key<EditorState> EDITOR_STATE_KEY = Key.create("LoggerFolding.lazyFoldingState");
+
+    private final Project project;
+
+    public LazyLoggerFolding(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Helper method to get the instance of a project
+     *
+     * @param project the project
+     * @return the instance of the project
+     */
+    static LazyLoggerFolding getInstance(Project project) {
+        return project.getService(LazyLoggerFolding.class);
+    }
+
+    /**
+     * Determines if the logger method calls of a document are folded as they become visible instead of by the folding
+     * builders
+     *
+     * @param document the document
+     * @return true if the document has more lines than the configured threshold
+     */
+    static boolean isLazy(@NotNull Document document) {
+
+        int lazyFoldingLineThreshold = LoggerFoldingApplicationSettings.getInstance().getState().getLazyFoldingLineThreshold();
+        return lazyFoldingLineThreshold > 0 && document.getLineCount() > lazyFoldingLineThreshold;
+    }
+
+    /**
+     * Starts listening to the visible areas of the editors of the project until the project is closed
+     */
+    void register() {
+
+        EditorFactory.getInstance().addEditorFactoryListener(new EditorFactoryListener() {
+
+            @Override
+            public void editorCreated(@NotNull EditorFactoryEvent event) {
+                attach(event.getEditor());
+            }
+
+            @Override
+            public void editorReleased(@NotNull EditorFactoryEvent event) {
+                detach(event.getEditor());
+            }
+        }, this);
+        ApplicationManager.getApplication().invokeLater(() -> {
+            for (Editor editor : EditorFactory.getInstance().getAllEditors()) {
+                attach(editor);
+            }
+        }, project.getDisposed());
+    }
+
+    @Override
+    public void dispose() {
+
+        for (Editor editor : EditorFactory.getInstance().getAllEditors()) {
+            if (editor.getProject() == project) {
+                detach(editor);
+            }
+        }
+    }
+
+    /**
+     * Starts listening to the visible area of an editor of a supported file of the project
+     *
+     * @param editor the editor
+     */
+    private void attach(@NotNull Editor editor) {
+
+        if (editor.getProject() != project || editor.getUserData(EDITOR_STATE_KEY) != null) {
+            return;
+        }
+        PsiFile psiFile = PsiDocumentManager.getInstance(project).getPsiFile(editor.getDocument());
+        if (psiFile == null || !LoggerCallSites.isSupported(psiFile)) {
+            return;
+        }
+        EditorState editorState = new EditorState(this::visibleAreaChanged);
+        editor.putUserData(EDITOR_STATE_KEY, editorState);
+        editor.getScrollingModel().addVisibleAreaListener(editorState.listener);
+    }
+
+    /**
+     * Stops listening to the visible area of an editor
+     *
+     * @param editor the editor
+     */
+    private static void detach(@NotNull Editor editor) {
+
+        EditorState editorState = editor.getUserData(EDITOR_STATE_KEY);
+        if (editorState != null) {
+            editor.getScrollingModel().removeVisibleAreaListener(editorState.listener);
+            editor.putUserData(EDITOR_STATE_KEY, null);
+        }
+    }
+
+    /**
+     * Checks the chunks of the visible area of an editor, plus one chunk above and below it, that were not checked
+     * since the document was last modified. The chunks from the first to the last unchecked one are checked together,
+     * and a check still in progress for the editor is cancelled.
+     *
+     * @param event the visible area event
+     */
+    private void visibleAreaChanged(@NotNull VisibleAreaEvent event) {
+
+        Editor editor = event.getEditor();
+        Document document = editor.getDocument();
+        EditorState editorState = editor.getUserData(EDITOR_STATE_KEY);
+        Rectangle visibleArea = event.getNewRectangle();
+        if (editorState == null || visibleArea == null || visibleArea.height <= 0 || !isEnabled() || !isLazy(document)) {
+            return;
+        }
+
+        long modificationStamp = document.getModificationStamp();
+        if (editorState.modificationStamp != modificationStamp) {
+            editorState.modificationStamp = modificationStamp;
+            editorState.checkedChunks.clear();
+        }
+
+        int lastChunk = (document.getLineCount() - 1) / LINES_PER_CHUNK;
+        int firstVisibleLine = editor.xyToLogicalPosition(visibleArea.getLocation()).line;
+        int lastVisibleLine = editor.xyToLogicalPosition(new Point(visibleArea.x, visibleArea.y + visibleArea.height)).line;
+        int firstChunk = editorState.checkedChunks.nextClearBit(Math.max(firstVisibleLine / LINES_PER_CHUNK - 1, 0));
+        int endChunk = Math.min(lastVisibleLine / LINES_PER_CHUNK + 1, lastChunk) + 1;
+        if (firstChunk >= endChunk) {
+            return;
+        }
+        int lastUncheckedChunk = editorState.checkedChunks.previousClearBit(endChunk - 1);
+        TextRange textRange = new TextRange(getChunkTextRange(document, firstChunk, lastChunk).getStartOffset(),
+                getChunkTextRange(document, lastUncheckedChunk, lastChunk).getEndOffset());
+
+        ReadAction.nonBlocking(() -> computeCallSites(editor, modificationStamp, firstChunk, lastUncheckedChunk, textRange))
+                .withDocumentsCommitted(project)
+                .inSmartMode(project)
+                .expireWhen(editor::isDisposed)
+                .expireWith(this)
+                .coalesceBy(this, editor)
+                .finishOnUiThread(ModalityState.defaultModalityState(), chunksCallSites -> reconcile(editor, chunksCallSites))
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * Returns the text range of a chunk of lines of a document
+     *
+     * @param document  the document
+     * @param chunk     the index of the chunk
+     * @param lastChunk the index of the last chunk of the document
+     * @return the text range from the start of the first line of the chunk to the start of the first line of the next one
+     */
+    @NotNull
+    private static TextRange getChunkTextRange(@NotNull Document document, int chunk, int lastChunk) {
+
+        int startOffset = document.getLineStartOffset(chunk * LINES_PER_CHUNK);
+        int endOffset = chunk < lastChunk ? document.getLineStartOffset((chunk + 1) * LINES_PER_CHUNK) :
+                document.getTextLength();
+        return new TextRange(startOffset, endOffset);
+    }
+
+    /**
+     * Computes the logger method calls of a range of chunks of the file of an editor. It must be invoked in a read
+     * action.
+     *
+     * @param editor            the editor
+     * @param modificationStamp the modification stamp of the document when the text range was computed
+     * @param firstChunk        the index of the first chunk
+     * @param lastChunk         the index of the last chunk
+     * @param textRange         the text range from the start of the first chunk to the end of the last one
+     * @return the call sites of the chunks, or null if the document was modified after the text range was computed
+     */
+    @Nullable
+    private ChunkCallSites computeCallSites(@NotNull Editor editor, long modificationStamp, int firstChunk, int lastChunk,
+                                            @NotNull TextRange textRange) {
+
+        Document document = editor.getDocument();
+        PsiFile psiFile = PsiDocumentManager.getInstance(project).getPsiFile(document);
+        if (psiFile == null || !psiFile.isValid() || document.getModificationStamp() != modificationStamp) {
+            return null;
+        }
+        List<LoggerCallSite> callSites = LoggerCallSites.coalesceAdjacent(psiFile,
+                LoggerCallSites.computeCallSitesIn(psiFile, textRange));
+        return new ChunkCallSites(modificationStamp, firstChunk, lastChunk, textRange, callSites);
+    }
+
+    /**
+     * Reconciles the fold regions of a range of chunks of an editor and marks the chunks as checked if its document was
+     * not modified after the call sites were computed. Otherwise, the chunks are checked again when the visible area
+     * changes.
+     *
+     * @param editor         the editor
+     * @param chunkCallSites the call sites of the chunks, or null if the document was modified
+     */
+    private static void reconcile(@NotNull Editor editor, @Nullable ChunkCallSites chunkCallSites) {
+
+        if (chunkCallSites == null || editor.isDisposed() || !isEnabled()) {
+            return;
+        }
+        EditorState editorState = editor.getUserData(EDITOR_STATE_KEY);
+        long modificationStamp = editor.getDocument().getModificationStamp();
+        if (editorState == null || chunkCallSites.modificationStamp() != modificationStamp) {
+            return;
+        }
+        FoldingModelHelper.reconcile(editor, chunkCallSites.textRange(), chunkCallSites.callSites());
+        if (editorState.modificationStamp == modificationStamp) {
+            editorState.checkedChunks.set(chunkCallSites.firstChunk(), chunkCallSites.lastChunk() + 1);
+        }
+    }
+
+    /**
+     * Determines if the logger method calls must be folded by default
+     *
+     * @return true if collapse by default is enabled
+     */
+    private static boolean isEnabled() {
+
+        return LoggerFoldingApplicationSettings.getInstance().getState().getCollapseByDefault();
+    }
+
+    /**
+     * Lazy folding state of an editor, only accessed on the EDT
+     *
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private static final class EditorState {
+
+        private final VisibleAreaListener listener;
+
+        private final BitSet checkedChunks = new BitSet();
+
+        private long modificationStamp = -1;
+
+        private EditorState(VisibleAreaListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Logger method calls of a range of chunks of lines
+     *
+     * @param modificationStamp the modification stamp of the document when the call sites were computed
+     * @param firstChunk        the index of the first chunk
+     * @param lastChunk         the index of the last chunk
+     * @param textRange         the text range from the start of the first chunk to the end of the last one
+     * @param callSites         the call sites that start in the chunks
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record ChunkCallSites(long modificationStamp, int firstChunk, int lastChunk, @NotNull TextRange textRange,
+                                  @NotNull List<LoggerCallSite> callSites) {
+
+    }
+
+}
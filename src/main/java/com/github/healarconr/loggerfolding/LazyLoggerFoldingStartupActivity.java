@@ -0,0 +1,21 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Startup activity that starts the folding of the logger method calls of the very large files of a project as they
+ * become visible
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class LazyLoggerFoldingStartupActivity implements StartupActivity.DumbAware {
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+
+        LazyLoggerFolding.getInstance(project).register();
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Detector of the logger method calls of the files of a language, registered in the {@code loggerCallDetector}
+ * extension point. The traversal of the files, the caches, the folding and the statistics are shared by all the
+ * languages, so a detector only determines which elements are logger method calls. The first detector that is
+ * applicable to a file is used, and the detector based on UAST is registered last to cover the languages without a
+ * specific detector.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public interface LoggerCallDetector {
+
+    ExtensionPointName<LoggerCallDetector> EP_NAME = ExtensionPointName.create("com.github.healarconr.loggerfolding.loggerCallDetector");
+
+    /**
+     * Determines if the logger method calls of a file can be detected
+     *
+     * @param psiFile the PSI file
+     * @return true if the file is written in the language of the detector
+     */
+    boolean isApplicable(@NotNull PsiFile psiFile);
+
+    /**
+     * Determines if the subtree of an element can contain method calls, so the subtrees that cannot are skipped
+     *
+     * @param element the element
+     * @return false if the subtree of the element cannot contain method calls
+     */
+    boolean canContainMethodCalls(@NotNull PsiElement element);
+
+    /**
+     * Creates the function that detects the logger method calls of a file resolving references
+     *
+     * @param psiFile  the PSI file
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return the function that returns the call site of an element or null if the element does not represent a logger
+     * method call
+     */
+    @NotNull
+    Function<PsiElement, LoggerCallSite> createDetector(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot);
+
+    /**
+     * Creates the function that detects the logger method calls of a file without resolving references, which is used
+     * in quick folding passes and while the indexes are not ready. A method call matches if the canonical name of its
+     * receiver can be obtained from the declarations and imports of the file and it is matched by the settings, or if
+     * it cannot be obtained and the receiver name is one of the configured receiver names.
+     *
+     * @param psiFile  the PSI file
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return the function that returns the call site of an element or null if the element does not represent a logger
+     * method call
+     */
+    @NotNull
+    Function<PsiElement, LoggerCallSite> createSyntacticDetector(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot);
+
+    /**
+     * Creates the function that detects the method calls of a file whose receiver has a canonical name that can be
+     * obtained without resolving references, regardless of the settings, to be stored in the {@link LoggerCallSiteIndex}
+     *
+     * @param psiFile the PSI file
+     * @return the function that returns the call site of an element, with the canonical name of its receiver, or null;
+     * by default no method call is indexed
+     */
+    @NotNull
+    default Function<PsiElement, LoggerCallSite> createIndexDetector(@NotNull PsiFile psiFile) {
+        return element -> null;
+    }
+
+    /**
+     * Returns the statement or declaration that contains an element, which is checked again when the element is
+     * modified and determines which logger method calls are adjacent
+     *
+     * @param element the element
+     * @return the statement or declaration or null if there is no such element smaller than the file
+     */
+    @Nullable
+    PsiElement getEnclosingStatement(@NotNull PsiElement element);
+
+    /**
+     * Finds the method call of a call site again, since the call sites do not reference the PSI
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the element of the method call or null if the file was modified after the call site was detected
+     */
+    @Nullable
+    PsiElement findMethodCall(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite);
+
+    /**
+     * Returns the name of the method of a call site
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the method name or null if the file was modified after the call site was detected
+     */
+    @Nullable
+    String getMethodName(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite);
+
+    /**
+     * Returns the placeholder text of the fold region of a method call
+     *
+     * @param methodCall the element of the method call
+     * @return the placeholder text or null if the element is not a method call
+     */
+    @Nullable
+    String getPlaceholderText(@NotNull PsiElement methodCall);
+
+    /**
+     * Computes the canonical names of the classes imported by a file, which are cached by the {@link ImportTable}
+     *
+     * @param psiFile the PSI file
+     * @return the imported canonical names mapped by simple name or alias; by default none
+     */
+    @NotNull
+    default Map<String, String> getImportedCanonicalNames(@NotNull PsiFile psiFile) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Finds the declarations of a file whose type is a logger class, which are cached by the
+     * {@link LoggerDeclarations}
+     *
+     * @param psiFile                the PSI file
+     * @param importedCanonicalNames the imported canonical names mapped by simple name or alias
+     * @param matcher                the matcher of the canonical names of the logger classes
+     * @return the canonical names of the logger classes mapped by the start offset of the declaration; by default none
+     */
+    @NotNull
+    default Map<Integer, String> getLoggerDeclarations(@NotNull PsiFile psiFile, @NotNull Map<String, String> importedCanonicalNames,
+                                                       @NotNull LoggerNameMatcher matcher) {
+        return Collections.emptyMap();
+    }
+
+}
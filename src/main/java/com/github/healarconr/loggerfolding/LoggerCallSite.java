@@ -0,0 +1,30 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.util.TextRange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Logger method call detected in a file, with the offsets and placeholder text of its fold region and the canonical
+ * name of the logger class that matched it. The placeholder text is computed once when the call site is detected and
+ * the call site does not reference the PSI, so the cached call sites of a file do not keep its AST in memory.
+ *
+ * @param startOffset      the start offset of the method call and of the fold region
+ * @param elementEndOffset the end offset of the method call, used to find its PSI element again
+ * @param endOffset        the end offset of the fold region, which can include the semicolon next to the method call
+ * @param placeholderText  the placeholder text of the fold region
+ * @param canonicalName    the canonical name of the logger class or null if the call site was detected by the name of
+ *                         its receiver
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public record LoggerCallSite(int startOffset, int elementEndOffset, int endOffset, @NotNull String placeholderText,
+                             @Nullable String canonicalName) implements FoldTarget {
+
+    @NotNull
+    @Override
+    public TextRange textRange() {
+
+        return new TextRange(startOffset, endOffset);
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Headless command that detects the logger method calls of the Java and Kotlin files of a project and writes a report
+ * with one JSON object per line. The files are analyzed concurrently, each one in its own read action, and the line of
+ * a file is written as soon as it is analyzed, so neither the PSI nor the call sites of the whole project are kept in
+ * memory. Only the files with logger method calls are reported, e.g.:
+ * <pre>
+ * {"file":"/project/src/Foo.java","callSites":3,"calls":[{"logger":"org.slf4j.Logger","method":"debug","count":2},...]}
+ * </pre>
+ * The logger is null for the calls detected by the name of their receiver.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class LoggerCallSiteAnalyzer implements ApplicationStarter {
+
+    private static final Logger LOG = Logger.getInstance(LoggerCallSiteAnalyzer.class);
+
+    private static final String COMMAND_NAME = "loggerCallSites";
+    private static final String SYNTACTIC_OPTION = "--syntactic";
+    private static final String USAGE = "Usage: " + COMMAND_NAME + " <project directory> <report file> ["
+            + SYNTACTIC_OPTION + "]";
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+
+        int exitCode;
+        try {
+            exitCode = analyze(args.subList(1, args.size()));
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Cannot analyze the logger method calls", e);
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Analyzes the project and writes the report
+     *
+     * @param args the arguments of the command
+     * @return the exit code
+     * @throws IOException if the report cannot be written
+     */
+    private static int analyze(@NotNull List<String> args) throws IOException {
+
+        boolean syntactic = args.contains(SYNTACTIC_OPTION);
+        List<String> paths = args.stream().filter(arg -> !SYNTACTIC_OPTION.equals(arg)).toList();
+        if (paths.size() != 2) {
+            LOG.warn(USAGE);
+            return 2;
+        }
+        Path projectPath = Path.of(paths.get(0)).toAbsolutePath().normalize();
+        Path reportPath = Path.of(paths.get(1)).toAbsolutePath().normalize();
+
+        Project project = ProjectUtil.openOrImport(projectPath.toString(), null, false);
+        if (project == null) {
+            LOG.warn("Cannot open project " + projectPath);
+            return 1;
+        }
+        try {
+            DumbService.getInstance(project).waitForSmartMode();
+            return analyze(project, reportPath, syntactic);
+        } finally {
+            ApplicationManager.getApplication().invokeAndWait(() -> ProjectManager.getInstance().closeAndDispose(project));
+        }
+    }
+
+    /**
+     * Analyzes the files of an open project concurrently and writes the line of each file to the report. Each file is
+     * analyzed in a non-blocking read action, which is restarted when a write action starts, so the workers do not
+     * delay the writes of the IDE, such as the refresh of the virtual file system.
+     *
+     * @param project    the project
+     * @param reportPath the path of the report
+     * @param syntactic  true if the call sites are detected without resolving references
+     * @return the exit code
+     * @throws IOException if the report cannot be written
+     */
+    private static int analyze(@NotNull Project project, @NotNull Path reportPath, boolean syntactic) throws IOException {
+
+        long startNanos = System.nanoTime();
+        LoggerFoldingSettingsSnapshot snapshot = LoggerFoldingProjectSettings.getInstance(project).getSnapshot();
+        List<VirtualFile> files = ReadAction.compute(() -> getSupportedFiles(project));
+        AtomicInteger reportedFiles = new AtomicInteger();
+        AtomicInteger callSites = new AtomicInteger();
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+
+        try (Writer writer = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+            JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, new EmptyProgressIndicator(), file -> {
+                FileReport fileReport = ReadAction.nonBlocking(() -> analyze(project, file, snapshot, syntactic))
+                        .executeSynchronously();
+                if (fileReport == null) {
+                    return true;
+                }
+                reportedFiles.incrementAndGet();
+                callSites.addAndGet(fileReport.callSites());
+                try {
+                    synchronized (writer) {
+                        writer.write(fileReport.line());
+                        writer.write('\n');
+                    }
+                    return true;
+                } catch (IOException e) {
+                    writeFailure.compareAndSet(null, e);
+                    return false;
+                }
+            });
+        }
+        if (writeFailure.get() != null) {
+            throw writeFailure.get();
+        }
+
+        LOG.info("Analyzed " + files.size() + " files in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms: " + callSites.get()
+                + " logger method calls in " + reportedFiles.get() + " files");
+        return 0;
+    }
+
+    /**
+     * Returns the Java and Kotlin files of the content of a project. It must be invoked in a read action.
+     *
+     * @param project the project
+     * @return the files
+     */
+    @NotNull
+    private static List<VirtualFile> getSupportedFiles(@NotNull Project project) {
+
+        List<VirtualFile> files = new ArrayList<>();
+        ProjectFileIndex.getInstance(project).iterateContent(file -> {
+            if (!file.isDirectory() && LoggerCallSiteIndex.isSupported(file)) {
+                files.add(file);
+            }
+            return true;
+        });
+        return files;
+    }
+
+    /**
+     * Detects the logger method calls of a file and counts them by logger class and method name. It must be invoked in
+     * a read action.
+     *
+     * @param project   the project
+     * @param file      the file
+     * @param snapshot  the Logger Folding project settings snapshot
+     * @param syntactic true if the call sites are detected without resolving references
+     * @return the report of the file or null if it has no logger method calls
+     */
+    @Nullable
+    private static FileReport analyze(@NotNull Project project, @NotNull VirtualFile file,
+                                      @NotNull LoggerFoldingSettingsSnapshot snapshot, boolean syntactic) {
+
+        PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+        if (psiFile == null || !LoggerCallSites.isSupported(psiFile)) {
+            return null;
+        }
+        List<LoggerCallSite> callSites = syntactic ? LoggerCallSites.computeSyntacticCallSites(psiFile, snapshot) :
+                LoggerCallSites.computeCallSites(psiFile, snapshot);
+        if (callSites.isEmpty()) {
+            return null;
+        }
+
+        Map<LoggerMethod, Integer> counts = new LinkedHashMap<>();
+        for (LoggerCallSite callSite : callSites) {
+            counts.merge(new LoggerMethod(callSite.canonicalName(), LoggerCallSites.getMethodName(psiFile, callSite)), 1,
+                    Integer::sum);
+        }
+
+        StringBuilder line = new StringBuilder("{\"file\":");
+        appendJsonString(line, file.getPath());
+        line.append(",\"callSites\":").append(callSites.size()).append(",\"calls\":[");
+        boolean first = true;
+        for (Map.Entry<LoggerMethod, Integer> count : counts.entrySet()) {
+            line.append(first ? "{\"logger\":" : ",{\"logger\":");
+            appendJsonString(line, count.getKey().canonicalName());
+            line.append(",\"method\":");
+            appendJsonString(line, count.getKey().methodName());
+            line.append(",\"count\":").append(count.getValue()).append('}');
+            first = false;
+        }
+        line.append("]}");
+        return new FileReport(line.toString(), callSites.size());
+    }
+
+    /**
+     * Appends a string or null as a JSON value
+     *
+     * @param builder the builder
+     * @param value   the string or null
+     */
+    private static void appendJsonString(@NotNull StringBuilder builder, @Nullable String value) {
+
+        if (value == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append('"');
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (character == '"' || character == '\\') {
+                builder.append('\\').append(character);
+            } else if (character < ' ') {
+                builder.append(String.format("\\u%04x", (int) character));
+            } else {
+                builder.append(character);
+            }
+        }
+        builder.append('"');
+    }
+
+    /**
+     * Logger class and method name of a logger method call
+     *
+     * @param canonicalName the canonical name of the logger class or null if the call was detected by the name of its
+     *                      receiver
+     * @param methodName    the method name or null if it could not be obtained
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record LoggerMethod(@Nullable String canonicalName, @Nullable String methodName) {
+
+    }
+
+    /**
+     * Report of a file
+     *
+     * @param line      the JSON line of the file
+     * @param callSites the number of logger method calls of the file
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record FileReport(@NotNull String line, int callSites) {
+
+    }
+
+}
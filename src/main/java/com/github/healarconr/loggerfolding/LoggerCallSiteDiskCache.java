@@ -0,0 +1,657 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginDescriptor;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.io.DigestUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache of the logger method calls of the files that outlives the application, so the call sites of an unchanged file
+ * are not resolved again after a restart or after its PSI is collected. The call sites are keyed by a hash of the
+ * plugin version, the settings fingerprint, the file path and the file content, and stored in an append-only file
+ * under the system directory:
+ * <pre>
+ * header:  magic (int), format version (int)
+ * records: key (20 bytes), payload length (int), payload
+ * payload: string count (int), strings (UTF-8 length (int), bytes), call site count (int),
+ *          call sites (start offset, element length, semicolon length, placeholder index, canonical name index or -1)
+ * </pre>
+ * The file is opened and its records are scanned in a background thread when the cache is created, and the cache
+ * misses until then, so no read action waits for the scan. All the modifications of the cache are done in that thread,
+ * which publishes an immutable {@link State} with the channel, the mapping and the locations of the current generation
+ * after each one, so {@link #get} reads the state without locking. The current generation of the file is memory-mapped
+ * once, and mapped again by the reader that reads a record appended after the mapping, and the payloads are slices of
+ * the mapping. The writer thread keeps the keys in least recently used order, replaying the accesses queued by the
+ * readers, and, when the file grows beyond {@value #MAX_SIZE} bytes, copies the most recently used records to a new
+ * generation of the file until half of that size is reached, publishes it and deletes the old one. The records are
+ * written only for files whose content is saved.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@Service(Service.Level.APP)
+public final class LoggerCallSiteDiskCache implements Disposable {
+
+    private static final Logger LOG = Logger.getInstance(LoggerCallSiteDiskCache.class);
+
+    private static final String PLUGIN_ID = "com.github.healarconr.loggerfolding";
+    private static final String FILE_PREFIX = "call-sites.";
+    private static final String FILE_SUFFIX = ".bin";
+
+    private static final int MAGIC = 0x4C464344;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int KEY_SIZE = 20;
+    private static final int RECORD_HEADER_SIZE = KEY_SIZE + 4;
+    private static final long MAX_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_PENDING_ACCESSES = 4096;
+
+    private final Path directory;
+
+    private final String pluginVersion;
+
+    private final long maxSize;
+
+    private final ExecutorService writer = AppExecutorUtil.createBoundedApplicationPoolExecutor("Logger Folding Disk Cache", 1);
+
+    private final AtomicReference<State> state = new AtomicReference<>();
+
+    private final Queue<ByteBuffer> accesses = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingAccesses = new AtomicInteger();
+
+    // The least recently used order of the keys, the generation and the size are accessed only in the writer thread
+    private LinkedHashMap<ByteBuffer, Location> locations = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int generation;
+
+    private long size;
+
+    private volatile boolean disposed;
+
+    public LoggerCallSiteDiskCache() {
+
+        this(Path.of(PathManager.getSystemPath(), "logger-folding"), getPluginVersion(), MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache whose files are stored in a directory
+     *
+     * @param directory     the directory of the cache files
+     * @param pluginVersion the version of the plugin, which is part of the keys
+     * @param maxSize       the size of the cache file above which it is compacted
+     */
+    LoggerCallSiteDiskCache(@NotNull Path directory, @NotNull String pluginVersion, long maxSize) {
+
+        this.directory = directory;
+        this.pluginVersion = pluginVersion;
+        this.maxSize = maxSize;
+        writer.execute(() -> {
+            try {
+                open();
+            } catch (IOException e) {
+                LOG.warn("Cannot open the logger call site disk cache", e);
+                close();
+            }
+        });
+    }
+
+    /**
+     * Helper method to get the instance of the cache
+     *
+     * @return the instance of the cache
+     */
+    static LoggerCallSiteDiskCache getInstance() {
+        return ApplicationManager.getApplication().getService(LoggerCallSiteDiskCache.class);
+    }
+
+    /**
+     * Computes the key of the call sites of a PSI file. It must be invoked in a read action.
+     *
+     * @param psiFile  the PSI file
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return the key or null if the PSI file has no virtual file
+     */
+    @Nullable
+    ByteBuffer computeKey(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        VirtualFile file = psiFile.getVirtualFile();
+        if (file == null) {
+            return null;
+        }
+        MessageDigest digest = DigestUtil.sha1();
+        update(digest, pluginVersion);
+        update(digest, snapshot.fingerprint());
+        update(digest, file.getPath());
+        update(digest, psiFile.getViewProvider().getContents().toString());
+        return ByteBuffer.wrap(digest.digest()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the call sites of a key without locking and queues the access, so the writer thread moves the key to
+     * the end of the least recently used order
+     *
+     * @param key the key
+     * @return an unmodifiable list of the call sites or null if the key is not cached or the cache cannot be read
+     */
+    @Nullable
+    List<LoggerCallSite> get(@NotNull ByteBuffer key) {
+
+        State current = state.get();
+        Location location = current != null ? current.locations().get(key) : null;
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer payload = map(current, location);
+        if (payload == null) {
+            return null;
+        }
+        if (pendingAccesses.incrementAndGet() <= MAX_PENDING_ACCESSES) {
+            accesses.add(key);
+        } else {
+            pendingAccesses.decrementAndGet();
+        }
+        try {
+            return decode(payload);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            LOG.debug("Cannot decode the logger call sites of a disk cache record", e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the call sites of a key in a background thread if the file of the PSI file is saved
+     *
+     * @param psiFile   the PSI file
+     * @param key       the key computed from the PSI file
+     * @param callSites the call sites
+     */
+    void put(@NotNull PsiFile psiFile, @NotNull ByteBuffer key, @NotNull List<LoggerCallSite> callSites) {
+
+        VirtualFile file = psiFile.getVirtualFile();
+        if (file == null || FileDocumentManager.getInstance().isFileModified(file)) {
+            return;
+        }
+        put(key, callSites);
+    }
+
+    /**
+     * Stores the call sites of a key in a background thread
+     *
+     * @param key       the key
+     * @param callSites the call sites
+     */
+    void put(@NotNull ByteBuffer key, @NotNull List<LoggerCallSite> callSites) {
+
+        writer.execute(() -> {
+            try {
+                write(key, encode(callSites));
+            } catch (IOException e) {
+                LOG.warn("Cannot write the logger call site disk cache", e);
+                close();
+            }
+        });
+    }
+
+    /**
+     * Waits until the pending operations of the writer thread are completed
+     *
+     * @throws Exception if the wait is interrupted or the operations fail
+     */
+    @TestOnly
+    void waitForWriter() throws Exception {
+
+        writer.submit(() -> {
+        }).get();
+    }
+
+    @Override
+    public void dispose() {
+
+        disposed = true;
+        writer.execute(this::close);
+    }
+
+    /**
+     * Opens the latest generation of the cache file, deletes the other ones, scans the records of its mapping and
+     * publishes the state. It must be invoked in the writer thread.
+     *
+     * @throws IOException if the cache file cannot be opened or read
+     */
+    private void open() throws IOException {
+
+        Files.createDirectories(directory);
+        Map<Integer, Path> generations = new HashMap<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path path : paths) {
+                String fileName = path.getFileName().toString();
+                try {
+                    generations.put(Integer.parseInt(fileName.substring(FILE_PREFIX.length(),
+                            fileName.length() - FILE_SUFFIX.length())), path);
+                } catch (NumberFormatException e) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+        int latestGeneration = generations.isEmpty() ? 0 : Collections.max(generations.keySet());
+        for (Map.Entry<Integer, Path> entry : generations.entrySet()) {
+            if (entry.getKey() != latestGeneration) {
+                Files.deleteIfExists(entry.getValue());
+            }
+        }
+
+        FileChannel channel = FileChannel.open(getPath(latestGeneration), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapping = null;
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                size = reset(channel);
+            } else {
+                mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                if (mapping.getInt(0) != MAGIC || mapping.getInt(4) != FORMAT_VERSION) {
+                    mapping = null;
+                    size = reset(channel);
+                } else {
+                    size = scan(mapping, locations);
+                    if (size < fileSize) {
+                        // The last record is incomplete, the mapping is dropped before truncating the file
+                        mapping = null;
+                        channel.truncate(size);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            channel.close();
+            locations.clear();
+            throw e;
+        }
+        if (disposed) {
+            channel.close();
+            locations.clear();
+            return;
+        }
+        generation = latestGeneration;
+        state.set(new State(channel, mapping, Map.copyOf(locations)));
+    }
+
+    /**
+     * Truncates a cache file with an invalid header and writes the header
+     *
+     * @param channel the file channel
+     * @return the size of the empty cache file
+     * @throws IOException if the cache file cannot be written
+     */
+    private static long reset(@NotNull FileChannel channel) throws IOException {
+
+        channel.truncate(0);
+        writeFully(channel, createHeader(), 0);
+        return HEADER_SIZE;
+    }
+
+    /**
+     * Scans the records of the mapping of a cache file in order, so the later records of a key replace the earlier ones
+     *
+     * @param file      the mapping of the cache file
+     * @param locations the map where the locations of the payloads are put by key
+     * @return the end offset of the last complete record
+     */
+    private static long scan(@NotNull ByteBuffer file, @NotNull Map<ByteBuffer, Location> locations) {
+
+        int fileSize = file.limit();
+        int position = HEADER_SIZE;
+        while (position <= fileSize - RECORD_HEADER_SIZE) {
+            int length = file.getInt(position + KEY_SIZE);
+            if (length < 0 || length > fileSize - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] key = new byte[KEY_SIZE];
+            file.get(position, key);
+            locations.put(ByteBuffer.wrap(key).asReadOnlyBuffer(), new Location(position + RECORD_HEADER_SIZE, length));
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    /**
+     * Appends a record unless the key is already cached with the same payload and publishes the state. The cache file
+     * is compacted when it grows beyond its maximum size. It must be invoked in the writer thread.
+     *
+     * @param key     the key
+     * @param payload the encoded call sites
+     * @throws IOException if the cache file cannot be written
+     */
+    private void write(@NotNull ByteBuffer key, @NotNull ByteBuffer payload) throws IOException {
+
+        State current = state.get();
+        if (current == null) {
+            return;
+        }
+        replayAccesses();
+        Location cachedLocation = current.locations().get(key);
+        if (cachedLocation != null && payload.equals(map(current, cachedLocation))) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.remaining());
+        record.put(key.duplicate()).putInt(payload.remaining()).put(payload.duplicate()).flip();
+        writeFully(current.channel(), record, size);
+        locations.put(key, new Location(size + RECORD_HEADER_SIZE, payload.remaining()));
+        size += record.capacity();
+        if (size > maxSize) {
+            compact(current);
+        } else {
+            state.set(new State(current.channel(), current.mapping(), Map.copyOf(locations)));
+        }
+    }
+
+    /**
+     * Moves the keys read since the last write to the end of the least recently used order. It must be invoked in the
+     * writer thread.
+     */
+    private void replayAccesses() {
+
+        ByteBuffer key;
+        while ((key = accesses.poll()) != null) {
+            pendingAccesses.decrementAndGet();
+            locations.get(key);
+        }
+    }
+
+    /**
+     * Copies the most recently used records to a new generation of the cache file until half of the maximum size is
+     * reached, publishes it and deletes the old one. The copied records are written in least recently used order, so
+     * the order is kept after a restart. The readers keep reading the old generation until the new one is published.
+     * It must be invoked in the writer thread.
+     *
+     * @param current the state of the old generation
+     * @throws IOException if the cache files cannot be read or written
+     */
+    private void compact(@NotNull State current) throws IOException {
+
+        List<Map.Entry<ByteBuffer, Location>> entries = new ArrayList<>(locations.entrySet());
+        int firstKept = entries.size();
+        long keptSize = HEADER_SIZE;
+        while (firstKept > 0) {
+            long recordSize = RECORD_HEADER_SIZE + entries.get(firstKept - 1).getValue().length();
+            if (keptSize + recordSize > maxSize / 2) {
+                break;
+            }
+            keptSize += recordSize;
+            firstKept--;
+        }
+
+        Path oldPath = getPath(generation);
+        FileChannel oldChannel = current.channel();
+        FileChannel newChannel = FileChannel.open(getPath(generation + 1), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        LinkedHashMap<ByteBuffer, Location> newLocations = new LinkedHashMap<>(16, 0.75f, true);
+        long position = HEADER_SIZE;
+        try {
+            writeFully(newChannel, createHeader(), 0);
+            for (Map.Entry<ByteBuffer, Location> entry : entries.subList(firstKept, entries.size())) {
+                Location location = entry.getValue();
+                ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + location.length());
+                record.put(entry.getKey().duplicate()).putInt(location.length());
+                while (record.hasRemaining()) {
+                    if (oldChannel.read(record, location.offset() + record.position() - RECORD_HEADER_SIZE) < 0) {
+                        throw new IOException("Unexpected end of the logger call site disk cache");
+                    }
+                }
+                record.flip();
+                writeFully(newChannel, record, position);
+                newLocations.put(entry.getKey(), new Location(position + RECORD_HEADER_SIZE, location.length()));
+                position += record.capacity();
+            }
+        } catch (IOException e) {
+            newChannel.close();
+            Files.deleteIfExists(getPath(generation + 1));
+            throw e;
+        }
+
+        locations = newLocations;
+        generation++;
+        size = position;
+        state.set(new State(newChannel, null, Map.copyOf(newLocations)));
+        // The mappings of the old generation held by the readers stay valid after its channel is closed
+        oldChannel.close();
+        try {
+            Files.deleteIfExists(oldPath);
+        } catch (IOException e) {
+            LOG.debug("Cannot delete the old logger call site disk cache, it is deleted on the next start", e);
+        }
+    }
+
+    /**
+     * Returns the payload of a record as a slice of the mapping of a state. If the record was appended after the
+     * mapping was created, the cache file is mapped again and the state with the new mapping is published, unless the
+     * state was replaced meanwhile.
+     *
+     * @param current  the state
+     * @param location the location of the payload in the cache file of the state
+     * @return the mapped payload or null if the cache file cannot be mapped, e.g. because it was compacted and closed
+     */
+    @Nullable
+    private ByteBuffer map(@NotNull State current, @NotNull Location location) {
+
+        MappedByteBuffer mapping = current.mapping();
+        try {
+            if (mapping == null || location.offset() + location.length() > mapping.capacity()) {
+                FileChannel channel = current.channel();
+                mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                state.compareAndSet(current, new State(channel, mapping, current.locations()));
+            }
+            return mapping.slice((int) location.offset(), location.length());
+        } catch (IOException e) {
+            LOG.debug("Cannot map the logger call site disk cache", e);
+            return null;
+        }
+    }
+
+    /**
+     * Closes the cache file and forgets the records, so the cache is disabled. It must be invoked in the writer thread.
+     */
+    private void close() {
+
+        locations.clear();
+        accesses.clear();
+        pendingAccesses.set(0);
+        State current = state.getAndSet(null);
+        if (current != null) {
+            try {
+                current.channel().close();
+            } catch (IOException e) {
+                LOG.debug("Cannot close the logger call site disk cache", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the version of the plugin
+     *
+     * @return the version or an empty string if the plugin is not loaded
+     */
+    @NotNull
+    private static String getPluginVersion() {
+
+        PluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+        return plugin != null ? plugin.getVersion() : "";
+    }
+
+    /**
+     * Returns the path of a generation of the cache file
+     *
+     * @param generation the generation
+     * @return the path
+     */
+    @NotNull
+    private Path getPath(int generation) {
+
+        return directory.resolve(FILE_PREFIX + generation + FILE_SUFFIX);
+    }
+
+    /**
+     * Creates the header of the cache file
+     *
+     * @return the header ready to be written
+     */
+    @NotNull
+    private static ByteBuffer createHeader() {
+
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+    }
+
+    /**
+     * Writes all the remaining bytes of a buffer at a position of a file
+     *
+     * @param channel  the file channel
+     * @param buffer   the buffer
+     * @param position the position
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer, long position) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Updates a digest with a string followed by a separator
+     *
+     * @param digest the digest
+     * @param value  the string
+     */
+    private static void update(@NotNull MessageDigest digest, @NotNull String value) {
+
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Encodes call sites as a payload, writing each distinct placeholder text and canonical name once
+     *
+     * @param callSites the call sites
+     * @return the payload ready to be written
+     */
+    @NotNull
+    static ByteBuffer encode(@NotNull List<LoggerCallSite> callSites) {
+
+        Map<String, Integer> indexes = new LinkedHashMap<>();
+        for (LoggerCallSite callSite : callSites) {
+            indexes.putIfAbsent(callSite.placeholderText(), indexes.size());
+            if (callSite.canonicalName() != null) {
+                indexes.putIfAbsent(callSite.canonicalName(), indexes.size());
+            }
+        }
+        List<byte[]> strings = new ArrayList<>(indexes.size());
+        int length = 8 + callSites.size() * 20;
+        for (String string : indexes.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            strings.add(bytes);
+            length += 4 + bytes.length;
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        payload.putInt(strings.size());
+        for (byte[] bytes : strings) {
+            payload.putInt(bytes.length).put(bytes);
+        }
+        payload.putInt(callSites.size());
+        for (LoggerCallSite callSite : callSites) {
+            payload.putInt(callSite.startOffset())
+                    .putInt(callSite.elementEndOffset() - callSite.startOffset())
+                    .putInt(callSite.endOffset() - callSite.elementEndOffset())
+                    .putInt(indexes.get(callSite.placeholderText()))
+                    .putInt(callSite.canonicalName() != null ? indexes.get(callSite.canonicalName()) : -1);
+        }
+        return payload.flip();
+    }
+
+    /**
+     * Decodes the call sites of a payload
+     *
+     * @param payload the payload
+     * @return an unmodifiable list of the call sites
+     */
+    @NotNull
+    static List<LoggerCallSite> decode(@NotNull ByteBuffer payload) {
+
+        String[] strings = new String[payload.getInt()];
+        for (int index = 0; index < strings.length; index++) {
+            byte[] bytes = new byte[payload.getInt()];
+            payload.get(bytes);
+            strings[index] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int callSiteCount = payload.getInt();
+        List<LoggerCallSite> callSites = new ArrayList<>(callSiteCount);
+        for (int index = 0; index < callSiteCount; index++) {
+            int startOffset = payload.getInt();
+            int elementEndOffset = startOffset + payload.getInt();
+            int endOffset = elementEndOffset + payload.getInt();
+            String placeholderText = strings[payload.getInt()];
+            int canonicalNameIndex = payload.getInt();
+            callSites.add(new LoggerCallSite(startOffset, elementEndOffset, endOffset, placeholderText,
+                    canonicalNameIndex >= 0 ? strings[canonicalNameIndex] : null));
+        }
+        return Collections.unmodifiableList(callSites);
+    }
+
+    /**
+     * Location of the payload of a record in the cache file
+     *
+     * @param offset the offset of the payload
+     * @param length the length of the payload
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record Location(long offset, int length) {
+
+    }
+
+    /**
+     * Immutable state of the current generation of the cache file, read by the readers without locking
+     *
+     * @param channel   the channel of the cache file
+     * @param mapping   the mapping of the cache file or null if it was not mapped yet
+     * @param locations the locations of the payloads by key
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record State(@NotNull FileChannel channel, @Nullable MappedByteBuffer mapping,
+                         @NotNull Map<ByteBuffer, Location> locations) {
+
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * File based index of the logger method calls of Java and Kotlin files. The keys are the canonical names of the logger
+ * classes and the values are the call sites of each file. The call sites are detected without resolving references, so
+ * the index does not depend on the Logger Folding project settings and the queries filter the keys using the
+ * configured canonical names and package wildcards. Only the plausible logger method calls are stored, as determined
+ * by {@link LoggerNameMatcher#isIndexable(String, String)}.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public final class LoggerCallSiteIndex extends FileBasedIndexExtension<String, List<LoggerCallSiteIndex.Entry>> {
+
+    static final ID<String, List<Entry>> NAME = ID.create("com.github.healarconr.loggerfolding.LoggerCallSiteIndex");
+
+    private static final String KOTLIN_FILE_TYPE_NAME = "Kotlin";
+
+    @NotNull
+    @Override
+    public ID<String, List<Entry>> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<Entry>, FileContent> getIndexer() {
+        return fileContent -> index(fileContent.getPsiFile());
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<Entry>> getValueExternalizer() {
+        return new EntriesExternalizer();
+    }
+
+    /**
+     * Returns the version of the index, which depends on the registered detectors, so the files are indexed again when
+     * a plugin that registers a detector is installed or removed. The extension point is not dynamic, so the detectors
+     * do not change while the application runs.
+     *
+     * @return the version of the index
+     */
+    @Override
+    public int getVersion() {
+
+        int version = 3;
+        for (LoggerCallDetector detector : LoggerCallDetector.EP_NAME.getExtensionList()) {
+            version = 31 * version + detector.getClass().getName().hashCode();
+        }
+        return version & Integer.MAX_VALUE;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return LoggerCallSiteIndex::isSupported;
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Determines if the logger method calls of a file can be indexed
+     *
+     * @param file the file
+     * @return true if the file is a Java or a Kotlin file
+     */
+    static boolean isSupported(@NotNull VirtualFile file) {
+
+        return file.getFileType() == JavaFileType.INSTANCE || KOTLIN_FILE_TYPE_NAME.equals(file.getFileType().getName());
+    }
+
+    /**
+     * Returns the canonical names of the logger classes of the indexed logger method calls that are matched by the
+     * matcher
+     *
+     * @param project the project
+     * @param matcher the matcher of the canonical names of the logger classes
+     * @return the sorted canonical names
+     */
+    @NotNull
+    static List<String> getMatchingCanonicalNames(@NotNull Project project, @NotNull LoggerNameMatcher matcher) {
+
+        List<String> canonicalNames = new ArrayList<>();
+        for (String canonicalName : FileBasedIndex.getInstance().getAllKeys(NAME, project)) {
+            if (matcher.matches(canonicalName)) {
+                canonicalNames.add(canonicalName);
+            }
+        }
+        Collections.sort(canonicalNames);
+        return canonicalNames;
+    }
+
+    /**
+     * Returns the indexed logger method calls of a file for some logger classes
+     *
+     * @param project        the project
+     * @param file           the file
+     * @param canonicalNames the canonical names of the logger classes
+     * @return the call sites ordered by start offset
+     */
+    @NotNull
+    static List<Entry> getCallSites(@NotNull Project project, @NotNull VirtualFile file, @NotNull Collection<String> canonicalNames) {
+
+        List<Entry> callSites = new ArrayList<>();
+        GlobalSearchScope scope = GlobalSearchScope.fileScope(project, file);
+        for (String canonicalName : canonicalNames) {
+            for (List<Entry> entries : FileBasedIndex.getInstance().getValues(NAME, canonicalName, scope)) {
+                callSites.addAll(entries);
+            }
+        }
+        callSites.sort(Comparator.comparingInt(Entry::startOffset));
+        return callSites;
+    }
+
+    /**
+     * Counts the indexed logger method calls and the files that contain them for a logger class
+     *
+     * @param project       the project
+     * @param canonicalName the canonical name of the logger class
+     * @param scope         the search scope
+     * @return an array with the number of call sites and the number of files
+     */
+    static int @NotNull [] countCallSites(@NotNull Project project, @NotNull String canonicalName, @NotNull GlobalSearchScope scope) {
+
+        int[] counts = new int[2];
+        FileBasedIndex.getInstance().processValues(NAME, canonicalName, null, (file, callSites) -> {
+            counts[0] += callSites.size();
+            counts[1]++;
+            return true;
+        }, scope);
+        return counts;
+    }
+
+    /**
+     * Detects the logger method calls of a PSI file without resolving references
+     *
+     * @param psiFile the PSI file
+     * @return the call sites mapped by the canonical name of the logger class
+     */
+    @NotNull
+    private static Map<String, List<Entry>> index(@NotNull PsiFile psiFile) {
+
+        Map<String, List<Entry>> callSites = new HashMap<>();
+        LoggerCallDetector detector = LoggerCallSites.getDetector(psiFile);
+        if (detector == null) {
+            return callSites;
+        }
+        List<LoggerCallSite> detectedCallSites = new ArrayList<>();
+        LoggerCallSites.walk(psiFile, detector::canContainMethodCalls, detector.createIndexDetector(psiFile),
+                detectedCallSites);
+        for (LoggerCallSite callSite : detectedCallSites) {
+            if (callSite.canonicalName() != null) {
+                addCallSite(callSites, callSite);
+            }
+        }
+        return callSites;
+    }
+
+    /**
+     * Adds a call site to the list of call sites of its logger class
+     *
+     * @param callSites the call sites mapped by the canonical name of the logger class
+     * @param callSite  the call site detected by the canonical name of its logger class
+     */
+    private static void addCallSite(Map<String, List<Entry>> callSites, LoggerCallSite callSite) {
+        callSites.computeIfAbsent(callSite.canonicalName(), key -> new ArrayList<>())
+                .add(new Entry(callSite.startOffset(), callSite.endOffset(), callSite.placeholderText()));
+    }
+
+    /**
+     * Indexed logger method call
+     *
+     * @param startOffset     the start offset of the fold region
+     * @param endOffset       the end offset of the fold region
+     * @param placeholderText the placeholder text of the fold region
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    record Entry(int startOffset, int endOffset, @NotNull String placeholderText) implements FoldTarget {
+
+        @NotNull
+        @Override
+        public TextRange textRange() {
+            return new TextRange(startOffset, endOffset);
+        }
+    }
+
+    /**
+     * Externalizer of the indexed logger method calls of a file that stores the offsets as variable length integers
+     *
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private static final class EntriesExternalizer implements DataExternalizer<List<Entry>> {
+
+        @Override
+        public void save(@NotNull DataOutput out, List<Entry> entries) throws IOException {
+            DataInputOutputUtil.writeINT(out, entries.size());
+            for (Entry entry : entries) {
+                DataInputOutputUtil.writeINT(out, entry.startOffset());
+                DataInputOutputUtil.writeINT(out, entry.endOffset() - entry.startOffset());
+                IOUtil.writeUTF(out, entry.placeholderText());
+            }
+        }
+
+        @Override
+        public List<Entry> read(@NotNull DataInput in) throws IOException {
+            int size = DataInputOutputUtil.readINT(in);
+            List<Entry> entries = new ArrayList<>(size);
+            for (int index = 0; index < size; index++) {
+                int startOffset = DataInputOutputUtil.readINT(in);
+                int endOffset = startOffset + DataInputOutputUtil.readINT(in);
+                entries.add(new Entry(startOffset, endOffset, IOUtil.readUTF(in)));
+            }
+            return entries;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Writes back the logger method calls of a file to the {@link LoggerCallSiteDiskCache} in a background read action when
+ * its editor is closed, so the call sites recomputed while it was edited are stored once instead of on every edit
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class LoggerCallSiteWriteBack implements FileEditorManagerListener {
+
+    private final Project project;
+
+    public LoggerCallSiteWriteBack(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void fileClosed(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+
+        ReadAction.nonBlocking(() -> {
+                    PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+                    if (psiFile != null && LoggerCallSites.isSupported(psiFile)) {
+                        LoggerCallSites.writeBack(psiFile);
+                    }
+                })
+                .expireWith(project)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+}
@@ -0,0 +1,560 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Helper class to obtain the logger method calls of a file with the {@link LoggerCallDetector} of its language, shared
+ * by all the languages. The call sites are cached per file and the cache is invalidated when the PSI or the Logger
+ * Folding project settings are modified. The call sites can also be detected without resolving references, which is
+ * used in quick folding passes and while the indexes are not ready. The
+ * resolved call sites of unchanged files are also kept in the {@link LoggerCallSiteDiskCache} across restarts. The
+ * collection of the call sites is recorded in the {@link LoggerFoldingStatistics} and emitted as a {@link FoldPassEvent}.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class LoggerCallSites {
+
+    private static final Key<CachedValue<List<LoggerCallSite>>> CALL_SITES_KEY = Key.create("LoggerFolding.callSites");
+    private static final Key<CachedValue<List<LoggerCallSite>>> SYNTACTIC_CALL_SITES_KEY = Key.create("LoggerFolding.syntacticCallSites");
+    private static final Key<Boolean> DISK_CACHE_CHECKED_KEY = Key.create("LoggerFolding.diskCacheChecked");
+    private static final Key<Boolean> DISK_CACHE_STALE_KEY = Key.create("LoggerFolding.diskCacheStale");
+
+    private static final int CHARACTERS_PER_CALL_SITE = 1000;
+    private static final int MIN_CALL_SITE_CAPACITY = 16;
+    private static final int MAX_CALL_SITE_CAPACITY = 4096;
+
+    private LoggerCallSites() {
+
+        super();
+    }
+
+    /**
+     * Determines if the logger method calls of a PSI file can be obtained
+     *
+     * @param psiFile the PSI file
+     * @return true if a {@link LoggerCallDetector} is applicable to the PSI file
+     */
+    static boolean isSupported(@NotNull PsiFile psiFile) {
+
+        return getDetector(psiFile) != null;
+    }
+
+    /**
+     * Returns the detector of the logger method calls of a PSI file
+     *
+     * @param psiFile the PSI file, or null if an element has no containing file
+     * @return the first registered {@link LoggerCallDetector} that is applicable to the PSI file or null if there is none
+     */
+    @Nullable
+    static LoggerCallDetector getDetector(@Nullable PsiFile psiFile) {
+
+        if (psiFile == null) {
+            return null;
+        }
+        for (LoggerCallDetector detector : LoggerCallDetector.EP_NAME.getExtensionList()) {
+            if (detector.isApplicable(psiFile)) {
+                return detector;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the logger method calls of a PSI file, computing them only if the cached ones are no longer valid
+     *
+     * @param psiFile the PSI file
+     * @return an unmodifiable list of the logger method calls ordered by start offset
+     */
+    @NotNull
+    static List<LoggerCallSite> getCallSites(@NotNull PsiFile psiFile) {
+
+        Project project = psiFile.getProject();
+        LoggerFoldingProjectSettings settings = LoggerFoldingProjectSettings.getInstance(project);
+        LoggerFoldingStatistics.increment(psiFile, LoggerFoldingStatistics.Counter.CACHE_REQUESTS);
+        return CachedValuesManager.getCachedValue(psiFile, CALL_SITES_KEY, () -> {
+            LoggerFoldingStatistics.increment(psiFile, LoggerFoldingStatistics.Counter.CACHE_MISSES);
+            return CachedValueProvider.Result.create(loadOrComputeCallSites(psiFile, settings.getSnapshot()),
+                    PsiModificationTracker.getInstance(project), settings.getModificationTracker());
+        });
+    }
+
+    /**
+     * Returns the name of the method of a call site
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the method name or null if the file was modified after the call site was detected
+     */
+    @Nullable
+    static String getMethodName(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        LoggerCallDetector detector = getDetector(psiFile);
+        return detector != null ? detector.getMethodName(psiFile, callSite) : null;
+    }
+
+    /**
+     * Finds the method call of a call site
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the element of the method call or null if the file was modified after the call site was detected
+     */
+    @Nullable
+    static PsiElement findMethodCall(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        LoggerCallDetector detector = getDetector(psiFile);
+        return detector != null ? detector.findMethodCall(psiFile, callSite) : null;
+    }
+
+    /**
+     * Returns the logger method calls of a PSI file detected without resolving references, computing them only if the
+     * cached ones are no longer valid. A method call matches if the canonical name of its receiver can be obtained from
+     * the declarations and imports of the file and it is one of the configured canonical names or package wildcards, or if it cannot be
+     * obtained and the receiver name is one of the configured receiver names.
+     *
+     * @param psiFile the PSI file
+     * @return an unmodifiable list of the logger method calls ordered by start offset
+     */
+    @NotNull
+    static List<LoggerCallSite> getSyntacticCallSites(@NotNull PsiFile psiFile) {
+
+        LoggerFoldingProjectSettings settings = LoggerFoldingProjectSettings.getInstance(psiFile.getProject());
+        LoggerFoldingStatistics.increment(psiFile, LoggerFoldingStatistics.Counter.CACHE_REQUESTS);
+        return CachedValuesManager.getCachedValue(psiFile, SYNTACTIC_CALL_SITES_KEY, () -> {
+            LoggerFoldingStatistics.increment(psiFile, LoggerFoldingStatistics.Counter.CACHE_MISSES);
+            return CachedValueProvider.Result.create(computeSyntacticCallSites(psiFile, settings.getSnapshot()),
+                    psiFile, settings.getModificationTracker());
+        });
+    }
+
+    /**
+     * Loads the logger method calls of a PSI file from the {@link LoggerCallSiteDiskCache} the first time they are
+     * requested for the PSI file, or computes them and stores them in the disk cache if they are not there. The loaded
+     * call sites may miss a modification of another file that affects the resolution, so they are only used until the
+     * PSI is modified. The call sites computed after a modification are not hashed nor stored on every edit, they are
+     * written back by {@link #writeBack(PsiFile)} when the file is closed.
+     *
+     * @param psiFile  the PSI file
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return an unmodifiable list of the logger method calls ordered by start offset
+     */
+    @NotNull
+    private static List<LoggerCallSite> loadOrComputeCallSites(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        if (psiFile.getUserData(DISK_CACHE_CHECKED_KEY) == null) {
+            psiFile.putUserData(DISK_CACHE_CHECKED_KEY, Boolean.TRUE);
+            LoggerCallSiteDiskCache diskCache = LoggerCallSiteDiskCache.getInstance();
+            ByteBuffer key = diskCache.computeKey(psiFile, snapshot);
+            if (key != null) {
+                List<LoggerCallSite> callSites = diskCache.get(key);
+                if (callSites != null) {
+                    LoggerFoldingStatistics.increment(psiFile, LoggerFoldingStatistics.Counter.DISK_CACHE_HITS);
+                    return callSites;
+                }
+                callSites = computeCallSites(psiFile, snapshot);
+                diskCache.put(psiFile, key, callSites);
+                return callSites;
+            }
+        }
+        psiFile.putUserData(DISK_CACHE_STALE_KEY, Boolean.TRUE);
+        return computeCallSites(psiFile, snapshot);
+    }
+
+    /**
+     * Stores in the {@link LoggerCallSiteDiskCache} the cached logger method calls of a PSI file if they were computed
+     * after the file was loaded, they are still valid and the file is saved. It must be invoked in a read action.
+     *
+     * @param psiFile the PSI file
+     */
+    static void writeBack(@NotNull PsiFile psiFile) {
+
+        VirtualFile file = psiFile.getVirtualFile();
+        CachedValue<List<LoggerCallSite>> callSites = psiFile.getUserData(CALL_SITES_KEY);
+        if (psiFile.getUserData(DISK_CACHE_STALE_KEY) == null || file == null || callSites == null
+                || !callSites.hasUpToDateValue() || FileDocumentManager.getInstance().isFileModified(file)) {
+            return;
+        }
+        LoggerCallSiteDiskCache diskCache = LoggerCallSiteDiskCache.getInstance();
+        ByteBuffer key = diskCache.computeKey(psiFile, LoggerFoldingProjectSettings.getInstance(psiFile.getProject()).getSnapshot());
+        if (key != null) {
+            psiFile.putUserData(DISK_CACHE_STALE_KEY, null);
+            diskCache.put(psiFile, key, callSites.getValue());
+        }
+    }
+
+    /**
+     * Computes the logger method calls of a PSI file
+     *
+     * @param psiFile  the PSI file
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return an unmodifiable list of the logger method calls ordered by start offset
+     */
+    @NotNull
+    static List<LoggerCallSite> computeCallSites(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        LoggerCallDetector detector = getDetector(psiFile);
+        if (detector == null) {
+            return Collections.emptyList();
+        }
+        return collectCallSites(psiFile, false, detector::canContainMethodCalls, detector.createDetector(psiFile, snapshot));
+    }
+
+    /**
+     * Returns the scope that must be checked again when a PSI element is modified, i.e. the statement that contains it,
+     * so the logger method calls of a modified file can be detected incrementally
+     *
+     * @param element the modified element
+     * @return the statement or declaration that contains the element or null if there is no such scope smaller than the
+     * file or the file is not supported
+     */
+    @Nullable
+    static PsiElement getIncrementalScope(@NotNull PsiElement element) {
+
+        LoggerCallDetector detector = getDetector(element.getContainingFile());
+        return detector != null ? detector.getEnclosingStatement(element) : null;
+    }
+
+    /**
+     * Computes the logger method calls of a scope of a PSI file without caching them
+     *
+     * @param scope the scope returned by {@link #getIncrementalScope(PsiElement)}
+     * @return the logger method calls contained in the scope ordered by start offset
+     */
+    @NotNull
+    static List<LoggerCallSite> computeCallSitesIn(@NotNull PsiElement scope) {
+
+        Detection detection = getDetection(scope.getContainingFile());
+        if (detection == null) {
+            return Collections.emptyList();
+        }
+
+        List<LoggerCallSite> callSites = new ArrayList<>();
+        LoggerCallSite callSite = detection.detector().apply(scope);
+        if (callSite != null) {
+            callSites.add(callSite);
+        }
+        if (detection.canContainMethodCalls().test(scope)) {
+            walk(scope, detection.canContainMethodCalls(), detection.detector(), callSites);
+        }
+        return callSites;
+    }
+
+    /**
+     * Computes the logger method calls of a PSI file that start in a text range without caching them. Only the subtrees
+     * that intersect the text range are walked, so outside of the text range only the siblings of the elements on the
+     * way to it are visited.
+     *
+     * @param psiFile   the PSI file
+     * @param textRange the text range
+     * @return the logger method calls that start in the text range ordered by start offset
+     */
+    @NotNull
+    static List<LoggerCallSite> computeCallSitesIn(@NotNull PsiFile psiFile, @NotNull TextRange textRange) {
+
+        Detection detection = getDetection(psiFile);
+        if (detection == null) {
+            return Collections.emptyList();
+        }
+
+        List<LoggerCallSite> callSites = new ArrayList<>();
+        walk(psiFile, element -> detection.canContainMethodCalls().test(element)
+                && element.getTextRange().intersects(textRange), element -> {
+            LoggerCallSite callSite = detection.detector().apply(element);
+            return callSite != null && callSite.startOffset() >= textRange.getStartOffset()
+                    && callSite.startOffset() < textRange.getEndOffset() ? callSite : null;
+        }, callSites);
+        return callSites;
+    }
+
+    /**
+     * Returns the functions that detect the logger method calls of a PSI file resolving references
+     *
+     * @param psiFile the PSI file
+     * @return the functions or null if the file is not supported
+     */
+    @Nullable
+    private static Detection getDetection(@Nullable PsiFile psiFile) {
+
+        LoggerCallDetector detector = getDetector(psiFile);
+        if (detector == null) {
+            return null;
+        }
+        LoggerFoldingSettingsSnapshot snapshot = LoggerFoldingProjectSettings.getInstance(psiFile.getProject()).getSnapshot();
+        return new Detection(detector::canContainMethodCalls, detector.createDetector(psiFile, snapshot));
+    }
+
+    /**
+     * Merges each run of adjacent logger method calls into a single call site if the coalescing of adjacent logger
+     * method calls is enabled. Two method calls are adjacent if each one is a whole statement, both statements belong to
+     * the same block and only whitespace separates them. The merged call site starts at the first method call of the
+     * run, ends at the end of the last one and its placeholder text is the one of the first method call followed by the
+     * number of method calls of the run. It must be invoked in a read action.
+     *
+     * @param psiFile   the PSI file
+     * @param callSites the call sites of the file ordered by start offset
+     * @return the call sites with the runs merged, or the same call sites if there is nothing to merge
+     */
+    @NotNull
+    static List<LoggerCallSite> coalesceAdjacent(@NotNull PsiFile psiFile, @NotNull List<LoggerCallSite> callSites) {
+
+        if (callSites.size() < 2 || !LoggerFoldingApplicationSettings.getInstance().getState().getCoalesceAdjacent()) {
+            return callSites;
+        }
+
+        CharSequence text = psiFile.getViewProvider().getContents();
+        List<LoggerCallSite> coalescedCallSites = new ArrayList<>(callSites.size());
+        int runStart = 0;
+        PsiElement previousBlock = getStatementBlock(psiFile, callSites.get(0));
+        for (int index = 1; index <= callSites.size(); index++) {
+            PsiElement block = index < callSites.size() ? getStatementBlock(psiFile, callSites.get(index)) : null;
+            if (block == null || block != previousBlock ||
+                    !isOnlyWhitespaceBetween(text, callSites.get(index - 1), callSites.get(index))) {
+                coalescedCallSites.add(mergeRun(callSites, runStart, index));
+                runStart = index;
+            }
+            previousBlock = block;
+        }
+
+        return coalescedCallSites.size() == callSites.size() ? callSites :
+                Collections.unmodifiableList(coalescedCallSites);
+    }
+
+    /**
+     * Returns the block that contains the statement of a logger method call
+     *
+     * @param psiFile  the PSI file
+     * @param callSite the call site
+     * @return the parent of the statement or null if the method call is not a whole statement
+     */
+    @Nullable
+    private static PsiElement getStatementBlock(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        PsiElement methodCall = findMethodCall(psiFile, callSite);
+        PsiElement statement = methodCall != null ? getIncrementalScope(methodCall) : null;
+        if (statement == null || statement.getTextRange().getStartOffset() != callSite.startOffset() ||
+                statement.getTextRange().getEndOffset() != callSite.endOffset()) {
+            return null;
+        }
+        return statement.getParent();
+    }
+
+    /**
+     * Determines if only whitespace separates two call sites
+     *
+     * @param text     the text of the file
+     * @param previous the previous call site
+     * @param next     the next call site
+     * @return true if the previous call site ends before the next one starts and only whitespace separates them
+     */
+    private static boolean isOnlyWhitespaceBetween(@NotNull CharSequence text, @NotNull LoggerCallSite previous,
+                                                   @NotNull LoggerCallSite next) {
+
+        if (previous.endOffset() > next.startOffset() || next.startOffset() > text.length()) {
+            return false;
+        }
+        for (int offset = previous.endOffset(); offset < next.startOffset(); offset++) {
+            if (!Character.isWhitespace(text.charAt(offset))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges a run of adjacent call sites into a single call site
+     *
+     * @param callSites the call sites
+     * @param fromIndex the index of the first call site of the run
+     * @param toIndex   the index after the last call site of the run
+     * @return the call site of the run, or the only call site of the run
+     */
+    @NotNull
+    private static LoggerCallSite mergeRun(@NotNull List<LoggerCallSite> callSites, int fromIndex, int toIndex) {
+
+        LoggerCallSite first = callSites.get(fromIndex);
+        if (toIndex - fromIndex == 1) {
+            return first;
+        }
+        LoggerCallSite last = callSites.get(toIndex - 1);
+        return new LoggerCallSite(first.startOffset(), first.elementEndOffset(), last.endOffset(),
+                PlaceholderTexts.formatRun(first.placeholderText(), toIndex - fromIndex), first.canonicalName());
+    }
+
+    /**
+     * Computes the logger method calls of a PSI file without resolving references
+     *
+     * @param psiFile  the PSI file
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return an unmodifiable list of the logger method calls ordered by start offset
+     */
+    @NotNull
+    static List<LoggerCallSite> computeSyntacticCallSites(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        LoggerCallDetector detector = getDetector(psiFile);
+        if (detector == null) {
+            return Collections.emptyList();
+        }
+        return collectCallSites(psiFile, true, detector::canContainMethodCalls,
+                detector.createSyntacticDetector(psiFile, snapshot));
+    }
+
+    /**
+     * Collects the logger method calls of a PSI file walking its tree in pre-order without recursion and without
+     * allocating arrays of children. The subtrees that cannot contain method calls are skipped.
+     *
+     * @param psiFile               the PSI file
+     * @param syntactic             true if the call sites are detected without resolving references
+     * @param canContainMethodCalls the predicate that determines if the subtree of an element can contain method calls
+     * @param detector              the function that returns the call site of an element or null if the element does
+     *                              not represent a logger method call
+     * @return an unmodifiable list of the logger method calls ordered by start offset
+     */
+    @NotNull
+    private static List<LoggerCallSite> collectCallSites(@NotNull PsiFile psiFile, boolean syntactic,
+                                                         @NotNull Predicate<PsiElement> canContainMethodCalls,
+                                                         @NotNull Function<PsiElement, LoggerCallSite> detector) {
+
+        List<LoggerCallSite> callSites = new ArrayList<>(estimateCallSiteCount(psiFile));
+
+        FoldPassEvent foldPassEvent = FoldPassEvent.start();
+        LoggerFoldingStatistics.Counters previousPass = LoggerFoldingStatistics.beginPass();
+        TimedDetector timedDetector = new TimedDetector(detector);
+        int elementsVisited = 0;
+        try {
+            elementsVisited = walk(psiFile, canContainMethodCalls, timedDetector, callSites);
+        } finally {
+            LoggerFoldingStatistics.endPass(psiFile, previousPass, elementsVisited, callSites.size(), timedDetector.nanos);
+            foldPassEvent.finish(psiFile, syntactic, elementsVisited, callSites.size());
+        }
+
+        return Collections.unmodifiableList(callSites);
+    }
+
+    /**
+     * Walks the descendants of a PSI element in pre-order adding the logger method calls to the call sites
+     *
+     * @param root                  the PSI file or element
+     * @param canContainMethodCalls the predicate that determines if the subtree of an element can contain method calls
+     * @param detector              the function that returns the call site of an element or null if the element does
+     *                              not represent a logger method call
+     * @param callSites             the call sites
+     * @return the number of elements visited
+     */
+    static int walk(@NotNull PsiElement root, @NotNull Predicate<PsiElement> canContainMethodCalls,
+                    @NotNull Function<PsiElement, LoggerCallSite> detector, @NotNull List<LoggerCallSite> callSites) {
+
+        int elementsVisited = 0;
+        PsiElement element = root.getFirstChild();
+        while (element != null) {
+            elementsVisited++;
+            LoggerCallSite callSite = detector.apply(element);
+            if (callSite != null) {
+                callSites.add(callSite);
+            }
+            PsiElement next = canContainMethodCalls.test(element) ? element.getFirstChild() : null;
+            while (next == null && element != null && element != root) {
+                next = element.getNextSibling();
+                if (next == null) {
+                    element = element.getParent();
+                }
+            }
+            element = next;
+        }
+        return elementsVisited;
+    }
+
+    /**
+     * Creates the call site of a logger method call counting the time spent computing its text range and placeholder
+     * text
+     *
+     * @param element       the PSI element of the method call
+     * @param canonicalName the canonical name of the logger class or null if the method call was detected by the name
+     *                      of its receiver
+     * @param factory       the function that creates the call site
+     * @return the call site
+     */
+    @NotNull
+    static LoggerCallSite createCallSite(@NotNull PsiElement element, @Nullable String canonicalName,
+                                                 @NotNull BiFunction<PsiElement, String, LoggerCallSite> factory) {
+
+        long startNanos = System.nanoTime();
+        LoggerCallSite callSite = factory.apply(element, canonicalName);
+        LoggerFoldingStatistics.add(LoggerFoldingStatistics.Counter.PLACEHOLDER_NANOS, System.nanoTime() - startNanos);
+        return callSite;
+    }
+
+    /**
+     * Estimates the number of logger method calls of a PSI file to presize the call sites buffer, assuming one call
+     * site every {@value #CHARACTERS_PER_CALL_SITE} characters
+     *
+     * @param psiFile the PSI file
+     * @return the estimated number of call sites
+     */
+    private static int estimateCallSiteCount(@NotNull PsiFile psiFile) {
+
+        return Math.min(Math.max(psiFile.getTextLength() / CHARACTERS_PER_CALL_SITE, MIN_CALL_SITE_CAPACITY),
+                MAX_CALL_SITE_CAPACITY);
+    }
+
+    /**
+     * Functions that detect the logger method calls of a file
+     *
+     * @param canContainMethodCalls the predicate that determines if the subtree of an element can contain method calls
+     * @param detector              the function that returns the call site of an element or null if the element does
+     *                              not represent a logger method call
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record Detection(@NotNull Predicate<PsiElement> canContainMethodCalls,
+                             @NotNull Function<PsiElement, LoggerCallSite> detector) {
+
+    }
+
+    /**
+     * Detector that accumulates the time spent in another detector, so the time spent matching excludes the walk of the
+     * tree
+     *
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private static final class TimedDetector implements Function<PsiElement, LoggerCallSite> {
+
+        private final Function<PsiElement, LoggerCallSite> detector;
+
+        private long nanos;
+
+        private TimedDetector(@NotNull Function<PsiElement, LoggerCallSite> detector) {
+            this.detector = detector;
+        }
+
+        @Override
+        public LoggerCallSite apply(PsiElement element) {
+
+            long startNanos = System.nanoTime();
+            try {
+                return detector.apply(element);
+            } finally {
+                nanos += System.nanoTime() - startNanos;
+            }
+        }
+    }
+
+}
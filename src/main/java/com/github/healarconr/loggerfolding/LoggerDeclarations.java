@@ -0,0 +1,119 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Helper class to obtain the logger declarations of a file, i.e. the Java fields and the Kotlin properties and
+ * parameters whose declared type is a logger class. The declarations are found from the type texts and the import table
+ * without resolving references, and their start offsets are cached per file until the file or the Logger Folding
+ * project settings are modified. Matching a method call whose receiver resolves to one of them is then a map lookup
+ * instead of a type inference.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class LoggerDeclarations {
+
+    private static final Key<CachedValue<Cache>> CACHE_KEY = Key.create("LoggerFolding.loggerDeclarations");
+
+    private LoggerDeclarations() {
+
+        super();
+    }
+
+    /**
+     * Determines if a file has logger declarations
+     *
+     * @param psiFile  the PSI file, or null if the element has no containing file
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return true if the file is a supported file with at least one logger declaration
+     */
+    static boolean hasAny(@Nullable PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        return !get(psiFile, snapshot).isEmpty();
+    }
+
+    /**
+     * Returns the canonical name of the logger class of a declaration if it is one of the logger declarations of a file
+     *
+     * @param psiFile     the PSI file, or null if the element has no containing file
+     * @param snapshot    the Logger Folding project settings snapshot
+     * @param declaration the declaration that the receiver of a method call resolves to
+     * @return the canonical name or null if the declaration is not a logger declaration of the file
+     */
+    @Nullable
+    static String getCanonicalName(@Nullable PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot,
+                                   @NotNull PsiElement declaration) {
+
+        if (psiFile == null || declaration.getContainingFile() != psiFile) {
+            return null;
+        }
+        Map<Integer, String> loggerDeclarations = get(psiFile, snapshot);
+        return loggerDeclarations.isEmpty() ? null : loggerDeclarations.get(declaration.getTextRange().getStartOffset());
+    }
+
+    /**
+     * Returns the logger declarations of a file, computing them only if the cached ones are no longer valid. If the
+     * cached ones were found with another matcher, the declarations are computed with the matcher without caching them,
+     * as in {@link LoggerTypeHierarchy}.
+     *
+     * @param psiFile  the PSI file, or null if the element has no containing file
+     * @param snapshot the Logger Folding project settings snapshot
+     * @return an unmodifiable map of the canonical names of the logger classes by the start offset of the declaration,
+     * empty if the file is not supported
+     */
+    @NotNull
+    private static Map<Integer, String> get(@Nullable PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        LoggerCallDetector detector = LoggerCallSites.getDetector(psiFile);
+        if (detector == null) {
+            return Collections.emptyMap();
+        }
+        LoggerNameMatcher matcher = snapshot.matcher();
+        LoggerFoldingProjectSettings settings = LoggerFoldingProjectSettings.getInstance(psiFile.getProject());
+        Cache cache = CachedValuesManager.getCachedValue(psiFile, CACHE_KEY, () -> {
+            LoggerNameMatcher currentMatcher = settings.getSnapshot().matcher();
+            return CachedValueProvider.Result.create(new Cache(currentMatcher, compute(psiFile, detector, currentMatcher)),
+                    psiFile, settings.getModificationTracker());
+        });
+        // The settings were modified after the cache was computed
+        return cache.matcher() == matcher ? cache.loggerDeclarations() : compute(psiFile, detector, matcher);
+    }
+
+    /**
+     * Finds the logger declarations of a file
+     *
+     * @param psiFile  the PSI file
+     * @param detector the detector of the logger method calls of the file
+     * @param matcher  the matcher of the canonical names of the logger classes
+     * @return an unmodifiable map of the canonical names of the logger classes by the start offset of the declaration
+     */
+    @NotNull
+    private static Map<Integer, String> compute(@NotNull PsiFile psiFile, @NotNull LoggerCallDetector detector,
+                                                @NotNull LoggerNameMatcher matcher) {
+
+        Map<String, String> importedCanonicalNames = ImportTable.getImportedCanonicalNames(psiFile);
+        return Collections.unmodifiableMap(detector.getLoggerDeclarations(psiFile, importedCanonicalNames, matcher));
+    }
+
+    /**
+     * Cached logger declarations of a file
+     *
+     * @param matcher            the matcher used to find the logger declarations
+     * @param loggerDeclarations the canonical names of the logger classes mapped by the start offset of the declaration
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record Cache(@NotNull LoggerNameMatcher matcher, @NotNull Map<Integer, String> loggerDeclarations) {
+
+    }
+
+}
@@ -39,7 +39,8 @@ public final class LoggerFoldingApplicationSettings implements PersistentStateCo
     }
 
     /**
-     * State class with the collapse by default flag
+     * State class with the collapse by default, fold while typing and coalesce adjacent flags and the number of lines
+     * above which the logger method calls of a file are folded as they become visible
      *
      * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
      */
@@ -47,6 +48,12 @@ public final class LoggerFoldingApplicationSettings implements PersistentStateCo
 
         private Boolean collapseByDefault = false;
 
+        private Boolean foldWhileTyping = true;
+
+        private Boolean coalesceAdjacent = false;
+
+        private Integer lazyFoldingLineThreshold = 20000;
+
         public Boolean getCollapseByDefault() {
             return collapseByDefault;
         }
@@ -55,6 +62,30 @@ public final class LoggerFoldingApplicationSettings implements PersistentStateCo
             this.collapseByDefault = collapseByDefault;
         }
 
+        public Boolean getFoldWhileTyping() {
+            return foldWhileTyping;
+        }
+
+        public void setFoldWhileTyping(Boolean foldWhileTyping) {
+            this.foldWhileTyping = foldWhileTyping;
+        }
+
+        public Boolean getCoalesceAdjacent() {
+            return coalesceAdjacent;
+        }
+
+        public void setCoalesceAdjacent(Boolean coalesceAdjacent) {
+            this.coalesceAdjacent = coalesceAdjacent;
+        }
+
+        public Integer getLazyFoldingLineThreshold() {
+            return lazyFoldingLineThreshold;
+        }
+
+        public void setLazyFoldingLineThreshold(Integer lazyFoldingLineThreshold) {
+            this.lazyFoldingLineThreshold = lazyFoldingLineThreshold;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -62,12 +93,17 @@ public final class LoggerFoldingApplicationSettings implements PersistentStateCo
 
             State state = (State) o;
 
-            return collapseByDefault.equals(state.collapseByDefault);
+            return collapseByDefault.equals(state.collapseByDefault) && foldWhileTyping.equals(state.foldWhileTyping)
+                    && coalesceAdjacent.equals(state.coalesceAdjacent)
+                    && lazyFoldingLineThreshold.equals(state.lazyFoldingLineThreshold);
         }
 
         @Override
         public int hashCode() {
-            return collapseByDefault.hashCode();
+            int result = collapseByDefault.hashCode();
+            result = 31 * result + foldWhileTyping.hashCode();
+            result = 31 * result + coalesceAdjacent.hashCode();
+            return 31 * result + lazyFoldingLineThreshold.hashCode();
         }
     }
 
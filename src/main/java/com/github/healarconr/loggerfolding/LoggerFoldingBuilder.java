@@ -0,0 +1,75 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.folding.FoldingBuilderEx;
+import com.intellij.lang.folding.FoldingDescriptor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Folding builder for logger method calls, registered for each language with a {@link LoggerCallDetector}. Quick
+ * folding passes and folding passes run while the indexes are not ready use the call sites detected without resolving
+ * references. The files folded as they become visible by {@link LazyLoggerFolding} are skipped. The placeholder texts
+ * are computed when the call sites are detected, so {@link #getPlaceholderText(ASTNode)} is only a fallback.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class LoggerFoldingBuilder extends FoldingBuilderEx implements DumbAware {
+
+    @NotNull
+    @Override
+    public FoldingDescriptor @NotNull [] buildFoldRegions(@NotNull PsiElement psiElement, @NotNull Document document, boolean quick) {
+
+        if (!(psiElement instanceof PsiFile psiFile) || !LoggerFoldingApplicationSettings.getInstance().getState()
+                .getCollapseByDefault()
+                || LazyLoggerFolding.isLazy(document)) {
+            return new FoldingDescriptor[0];
+        }
+        LoggerCallDetector detector = LoggerCallSites.getDetector(psiFile);
+        if (detector == null) {
+            return new FoldingDescriptor[0];
+        }
+
+        LoggerFoldingStatistics.increment(psiFile, LoggerFoldingStatistics.Counter.FOLDING_PASSES);
+        List<LoggerCallSite> callSites = quick || DumbService.isDumb(psiFile.getProject()) ?
+                LoggerCallSites.getSyntacticCallSites(psiFile) : LoggerCallSites.getCallSites(psiFile);
+        callSites = LoggerCallSites.coalesceAdjacent(psiFile, callSites);
+
+        FoldingDescriptor[] foldingDescriptors = new FoldingDescriptor[callSites.size()];
+        int index = 0;
+        for (LoggerCallSite callSite : callSites) {
+            // The call sites do not reference the PSI, so the method call is found again by its offsets
+            PsiElement methodCall = detector.findMethodCall(psiFile, callSite);
+            if (methodCall != null) {
+                foldingDescriptors[index++] = new FoldingDescriptor(methodCall.getNode(), callSite.textRange(), null,
+                        callSite.placeholderText());
+            }
+        }
+
+        return index == foldingDescriptors.length ? foldingDescriptors : Arrays.copyOf(foldingDescriptors, index);
+    }
+
+    @Nullable
+    @Override
+    public String getPlaceholderText(@NotNull ASTNode astNode) {
+
+        PsiElement psiElement = astNode.getPsi();
+        LoggerCallDetector detector = LoggerCallSites.getDetector(psiElement.getContainingFile());
+        return detector != null ? detector.getPlaceholderText(psiElement) : null;
+    }
+
+    @Override
+    public boolean isCollapsedByDefault(@NotNull ASTNode astNode) {
+
+        return true;
+    }
+
+}
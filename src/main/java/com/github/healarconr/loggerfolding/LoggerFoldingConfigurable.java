@@ -5,6 +5,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.ui.IdeBorderFactory;
 import com.intellij.ui.TableUtil;
 import com.intellij.ui.ToolbarDecorator;
+import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.table.JBTable;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
@@ -18,7 +19,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
- * Configurable used to let the user establish the names of the logger classes to fold/unfold using the IDE settings (Tools > Logger folding)
+ * Configurable used to let the user establish the names of the logger classes to fold/unfold, whether their subtypes are
+ * also folded/unfolded and the names of the logger receivers to fold while indexing using the IDE settings (Tools >
+ * Logger folding)
  *
  * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
  */
@@ -26,9 +29,14 @@ public class LoggerFoldingConfigurable implements Configurable {
 
     private final Project project;
 
-    private CanonicalNamesTableModel canonicalNamesTableModel;
+    private NamesTableModel canonicalNamesTableModel;
     private JBTable canonicalNamesTable;
 
+    private NamesTableModel receiverNamesTableModel;
+    private JBTable receiverNamesTable;
+
+    private JBCheckBox matchSubtypesCheckBox;
+
     public LoggerFoldingConfigurable(Project project) {
         this.project = project;
     }
@@ -50,84 +58,119 @@ public class LoggerFoldingConfigurable implements Configurable {
     public JComponent createComponent() {
         JPanel container = new JPanel(new BorderLayout());
 
-        JPanel canonicalNamesPanel = new JPanel(new BorderLayout());
-        container.add(canonicalNamesPanel, BorderLayout.CENTER);
+        matchSubtypesCheckBox = new JBCheckBox("Also fold/unfold method calls on subclasses and implementations of the logger classes");
+        container.add(matchSubtypesCheckBox, BorderLayout.NORTH);
 
-        canonicalNamesPanel.setBorder(IdeBorderFactory.createTitledBorder("Classes or Interfaces to Fold/Unfold", false));
-
-        canonicalNamesTableModel = new CanonicalNamesTableModel(Collections.emptyList());
+        canonicalNamesTableModel = new NamesTableModel("Canonical name", Collections.emptyList());
         canonicalNamesTable = new JBTable(canonicalNamesTableModel);
+        container.add(createNamesPanel("Classes or Interfaces to Fold/Unfold", canonicalNamesTableModel,
+                canonicalNamesTable), BorderLayout.CENTER);
+
+        receiverNamesTableModel = new NamesTableModel("Receiver name", Collections.emptyList());
+        receiverNamesTable = new JBTable(receiverNamesTableModel);
+        container.add(createNamesPanel("Logger Names to Fold While Indexing", receiverNamesTableModel,
+                receiverNamesTable), BorderLayout.SOUTH);
+
+        return container;
+    }
 
-        JPanel canonicalNamesTablePanel = ToolbarDecorator.createDecorator(canonicalNamesTable).setAddAction(anActionButton -> {
-            int rowIndex = canonicalNamesTable.getSelectedRow() + 1;
+    /**
+     * Creates a titled panel with a names table and the toolbar to add and remove names
+     *
+     * @param title           the title of the panel
+     * @param namesTableModel the names table model
+     * @param namesTable      the names table
+     * @return the panel
+     */
+    private static JPanel createNamesPanel(String title, NamesTableModel namesTableModel, JBTable namesTable) {
+        JPanel namesPanel = new JPanel(new BorderLayout());
+
+        namesPanel.setBorder(IdeBorderFactory.createTitledBorder(title, false));
+
+        JPanel namesTablePanel = ToolbarDecorator.createDecorator(namesTable).setAddAction(anActionButton -> {
+            int rowIndex = namesTable.getSelectedRow() + 1;
             if (rowIndex < 0) {
-                rowIndex = canonicalNamesTableModel.getRowCount();
+                rowIndex = namesTableModel.getRowCount();
             }
-            canonicalNamesTableModel.addEmptyRow(rowIndex);
-            canonicalNamesTableModel.fireTableRowsInserted(rowIndex, rowIndex);
-            canonicalNamesTable.setRowSelectionInterval(rowIndex, rowIndex);
-            TableUtil.editCellAt(canonicalNamesTable, rowIndex, 0);
-            Component editorComponent = canonicalNamesTable.getEditorComponent();
+            namesTableModel.addEmptyRow(rowIndex);
+            namesTableModel.fireTableRowsInserted(rowIndex, rowIndex);
+            namesTable.setRowSelectionInterval(rowIndex, rowIndex);
+            TableUtil.editCellAt(namesTable, rowIndex, 0);
+            Component editorComponent = namesTable.getEditorComponent();
             if (editorComponent != null) {
                 editorComponent.requestFocus();
             }
         }).setRemoveAction(anActionButton -> {
-            int rowIndex = canonicalNamesTable.getSelectedRow();
+            int rowIndex = namesTable.getSelectedRow();
             if (rowIndex < 0) {
                 return;
             }
-            TableUtil.stopEditing(canonicalNamesTable);
-            canonicalNamesTableModel.remove(rowIndex);
-            canonicalNamesTableModel.fireTableRowsDeleted(rowIndex, rowIndex);
-            if (rowIndex >= canonicalNamesTableModel.getRowCount()) {
+            TableUtil.stopEditing(namesTable);
+            namesTableModel.remove(rowIndex);
+            namesTableModel.fireTableRowsDeleted(rowIndex, rowIndex);
+            if (rowIndex >= namesTableModel.getRowCount()) {
                 rowIndex--;
             }
             if (rowIndex >= 0) {
-                canonicalNamesTable.setRowSelectionInterval(rowIndex, rowIndex);
+                namesTable.setRowSelectionInterval(rowIndex, rowIndex);
             }
         }).createPanel();
 
-        canonicalNamesPanel.add(canonicalNamesTablePanel, BorderLayout.CENTER);
+        namesPanel.add(namesTablePanel, BorderLayout.CENTER);
 
-        return container;
+        return namesPanel;
     }
 
     @Override
     public boolean isModified() {
 
         LoggerFoldingProjectSettings.State state = new LoggerFoldingProjectSettings.State();
-        state.setCanonicalNames(new LinkedHashSet<>(canonicalNamesTableModel.getCanonicalNames()));
+        state.setCanonicalNames(new LinkedHashSet<>(canonicalNamesTableModel.getNames()));
+        state.setReceiverNames(new LinkedHashSet<>(receiverNamesTableModel.getNames()));
+        state.setMatchSubtypes(matchSubtypesCheckBox.isSelected());
         return !state.equals(LoggerFoldingProjectSettings.getInstance(project).getState());
     }
 
     @Override
     public void apply() {
         TableUtil.stopEditing(canonicalNamesTable);
-        LoggerFoldingProjectSettings.getInstance(project).getState().setCanonicalNames(new LinkedHashSet<>(canonicalNamesTableModel.getCanonicalNames()));
+        TableUtil.stopEditing(receiverNamesTable);
+        LoggerFoldingProjectSettings.getInstance(project).update(state -> {
+            state.setCanonicalNames(new LinkedHashSet<>(canonicalNamesTableModel.getNames()));
+            state.setReceiverNames(new LinkedHashSet<>(receiverNamesTableModel.getNames()));
+            state.setMatchSubtypes(matchSubtypesCheckBox.isSelected());
+        });
     }
 
     @Override
     public void reset() {
-        canonicalNamesTableModel.setCanonicalNames(new ArrayList<>(LoggerFoldingProjectSettings.getInstance(project).getState().getCanonicalNames()));
+        LoggerFoldingProjectSettings.State state = LoggerFoldingProjectSettings.getInstance(project).getState();
+        canonicalNamesTableModel.setNames(new ArrayList<>(state.getCanonicalNames()));
         canonicalNamesTableModel.fireTableDataChanged();
+        receiverNamesTableModel.setNames(new ArrayList<>(state.getReceiverNames()));
+        receiverNamesTableModel.fireTableDataChanged();
+        matchSubtypesCheckBox.setSelected(state.getMatchSubtypes());
     }
 
     /**
-     * Table model used to store the canonical names of the logger classes
+     * Table model used to store the names of the logger classes or the names of the logger receivers
      *
      * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
      */
-    private static class CanonicalNamesTableModel extends AbstractTableModel {
+    private static class NamesTableModel extends AbstractTableModel {
+
+        private final String columnName;
 
-        private List<String> canonicalNames;
+        private List<String> names;
 
-        CanonicalNamesTableModel(List<String> canonicalNames) {
-            setCanonicalNames(canonicalNames);
+        NamesTableModel(String columnName, List<String> names) {
+            this.columnName = columnName;
+            setNames(names);
         }
 
         @Override
         public int getRowCount() {
-            return canonicalNames.size();
+            return names.size();
         }
 
         @Override
@@ -137,12 +180,12 @@ public class LoggerFoldingConfigurable implements Configurable {
 
         @Override
         public Object getValueAt(int rowIndex, int columnIndex) {
-            return canonicalNames.get(rowIndex);
+            return names.get(rowIndex);
         }
 
         @Override
         public String getColumnName(int column) {
-            return "Canonical name";
+            return columnName;
         }
 
         @Override
@@ -152,23 +195,23 @@ public class LoggerFoldingConfigurable implements Configurable {
 
         @Override
         public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
-            canonicalNames.set(rowIndex, (String) aValue);
+            names.set(rowIndex, (String) aValue);
         }
 
         private void addEmptyRow(int index) {
-            canonicalNames.add(index, "");
+            names.add(index, "");
         }
 
         private void remove(int index) {
-            canonicalNames.remove(index);
+            names.remove(index);
         }
 
-        private List<String> getCanonicalNames() {
-            return new ArrayList<>(canonicalNames);
+        private List<String> getNames() {
+            return new ArrayList<>(names);
         }
 
-        void setCanonicalNames(List<String> canonicalNames) {
-            this.canonicalNames = canonicalNames == null ? new ArrayList<>() : new ArrayList<>(canonicalNames);
+        void setNames(List<String> names) {
+            this.names = names == null ? new ArrayList<>() : new ArrayList<>(names);
         }
     }
 
@@ -4,13 +4,17 @@ import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
- * Persistent logger folding project settings
+ * Persistent logger folding project settings. The state is replaced instead of modified, and every state is published
+ * along with an immutable snapshot used by the readers. The modifications are announced to the
+ * {@link LoggerFoldingSettingsListener#TOPIC} subscribers with the snapshots before and after them.
  *
  * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
  */
@@ -18,7 +22,15 @@ import java.util.Objects;
 @State(name = "LoggerFolding")
 public final class LoggerFoldingProjectSettings implements PersistentStateComponent<LoggerFoldingProjectSettings.State> {
 
-    private State state = new State();
+    private final Project project;
+
+    private volatile State state = new State();
+
+    private volatile LoggerFoldingSettingsSnapshot snapshot = LoggerFoldingSettingsSnapshot.of(state);
+
+    public LoggerFoldingProjectSettings(Project project) {
+        this.project = project;
+    }
 
     /**
      * Helper method to get an instance of the settings
@@ -38,11 +50,59 @@ public final class LoggerFoldingProjectSettings implements PersistentStateCompon
 
     @Override
     public void loadState(@NotNull State state) {
-        this.state = state;
+        publish(state.copy());
+    }
+
+    /**
+     * Modifies a copy of the current state and publishes it, so readers of the state and the snapshot never observe a
+     * partially applied modification. The listeners are notified only if the state was actually modified.
+     *
+     * @param modification the modification to apply to the copy of the state
+     */
+    void update(@NotNull Consumer<State> modification) {
+        State oldState = state;
+        LoggerFoldingSettingsSnapshot oldSnapshot = snapshot;
+        State newState = oldState.copy();
+        modification.accept(newState);
+        if (newState.equals(oldState)) {
+            return;
+        }
+        publish(newState);
+        project.getMessageBus().syncPublisher(LoggerFoldingSettingsListener.TOPIC).settingsChanged(oldSnapshot, snapshot);
+    }
+
+    /**
+     * Publishes a new state and the snapshot created from it
+     *
+     * @param newState the new state
+     */
+    private void publish(@NotNull State newState) {
+        state = newState;
+        snapshot = LoggerFoldingSettingsSnapshot.of(newState);
+    }
+
+    /**
+     * Returns the current immutable snapshot of the settings
+     *
+     * @return the snapshot
+     */
+    @NotNull
+    LoggerFoldingSettingsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns a modification tracker whose modification count is the version of the current snapshot
+     *
+     * @return the modification tracker
+     */
+    @NotNull
+    ModificationTracker getModificationTracker() {
+        return () -> snapshot.version();
     }
 
     /**
-     * State class with the canonical names to persist
+     * State class with the canonical names, the receiver names and the match subtypes flag to persist
      *
      * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
      */
@@ -50,6 +110,9 @@ public final class LoggerFoldingProjectSettings implements PersistentStateCompon
 
         private LinkedHashSet<String> canonicalNames = getDefaultCanonicalNames();
 
+        private LinkedHashSet<String> receiverNames = getDefaultReceiverNames();
+
+        private boolean matchSubtypes;
 
         /**
          * Returns a linked hash set of the default canonical names of the logger classes
@@ -69,6 +132,34 @@ public final class LoggerFoldingProjectSettings implements PersistentStateCompon
             return defaultCanonicalNames;
         }
 
+        /**
+         * Returns a linked hash set of the default names of the receivers of logger method calls, used to detect them
+         * when the type of the receiver cannot be determined without resolving references
+         *
+         * @return a linked hash set of the default receiver names
+         */
+        private static LinkedHashSet<String> getDefaultReceiverNames() {
+            LinkedHashSet<String> defaultReceiverNames = new LinkedHashSet<>();
+            defaultReceiverNames.add("log");
+            defaultReceiverNames.add("LOG");
+            defaultReceiverNames.add("logger");
+            defaultReceiverNames.add("LOGGER");
+            return defaultReceiverNames;
+        }
+
+        /**
+         * Returns a copy of the state
+         *
+         * @return the copy
+         */
+        State copy() {
+            State copy = new State();
+            copy.setCanonicalNames(canonicalNames);
+            copy.setReceiverNames(receiverNames);
+            copy.setMatchSubtypes(matchSubtypes);
+            return copy;
+        }
+
         public LinkedHashSet<String> getCanonicalNames() {
             return canonicalNames;
         }
@@ -77,6 +168,22 @@ public final class LoggerFoldingProjectSettings implements PersistentStateCompon
             this.canonicalNames = new LinkedHashSet<>(canonicalNames);
         }
 
+        public LinkedHashSet<String> getReceiverNames() {
+            return receiverNames;
+        }
+
+        public void setReceiverNames(LinkedHashSet<String> receiverNames) {
+            this.receiverNames = new LinkedHashSet<>(receiverNames);
+        }
+
+        public boolean getMatchSubtypes() {
+            return matchSubtypes;
+        }
+
+        public void setMatchSubtypes(boolean matchSubtypes) {
+            this.matchSubtypes = matchSubtypes;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -86,12 +193,13 @@ public final class LoggerFoldingProjectSettings implements PersistentStateCompon
                 return false;
             }
             State state = (State) o;
-            return Objects.equals(canonicalNames, state.canonicalNames);
+            return matchSubtypes == state.matchSubtypes && Objects.equals(canonicalNames, state.canonicalNames)
+                    && Objects.equals(receiverNames, state.receiverNames);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(canonicalNames);
+            return Objects.hash(canonicalNames, receiverNames, matchSubtypes);
         }
     }
 
@@ -0,0 +1,27 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.util.messages.Topic;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener of the modifications of the Logger Folding project settings
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public interface LoggerFoldingSettingsListener {
+
+    /**
+     * Topic of the modifications of the Logger Folding project settings, published on the project message bus
+     */
+    @Topic.ProjectLevel
+    Topic<LoggerFoldingSettingsListener> TOPIC = new Topic<>(LoggerFoldingSettingsListener.class, Topic.BroadcastDirection.NONE);
+
+    /**
+     * Invoked after the settings are modified, in the thread that modified them
+     *
+     * @param oldSnapshot the snapshot of the settings before the modification
+     * @param newSnapshot the snapshot of the settings after the modification
+     */
+    void settingsChanged(@NotNull LoggerFoldingSettingsSnapshot oldSnapshot, @NotNull LoggerFoldingSettingsSnapshot newSnapshot);
+
+}
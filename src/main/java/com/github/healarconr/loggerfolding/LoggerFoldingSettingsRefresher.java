@@ -0,0 +1,171 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Refreshes the fold regions of the open editors when the Logger Folding project settings are modified. When only the
+ * canonical names are modified, the logger classes that are matched only before or only after the modification are
+ * looked up in the {@link LoggerCallSiteIndex}, and only their call sites in the open Java editors are unfolded or
+ * folded. The call sites of the other languages can depend on resolved types, such as the inferred types of Kotlin
+ * properties or the receivers of the UAST detector, which are not indexed, so the folding passes of their files are
+ * restarted. The other modifications, the subtype matching and the canonical names of classes that are not stored in
+ * the index cannot be expressed as a difference of indexed logger classes, so the folding passes of all the open files
+ * are restarted instead.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class LoggerFoldingSettingsRefresher implements LoggerFoldingSettingsListener {
+
+    private final Project project;
+
+    public LoggerFoldingSettingsRefresher(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void settingsChanged(@NotNull LoggerFoldingSettingsSnapshot oldSnapshot, @NotNull LoggerFoldingSettingsSnapshot newSnapshot) {
+
+        List<Editor> editors = ActionHelper.getSupportedOpenEditors(project);
+        if (editors.isEmpty()) {
+            return;
+        }
+
+        if (oldSnapshot.matchSubtypes() || newSnapshot.matchSubtypes()
+                || !oldSnapshot.receiverNames().equals(newSnapshot.receiverNames())
+                || !oldSnapshot.matcher().isIndexable() || !newSnapshot.matcher().isIndexable()
+                || LoggerFoldingApplicationSettings.getInstance().getState().getCoalesceAdjacent()) {
+            restartFoldingPasses(editors);
+            return;
+        }
+
+        List<Editor> javaEditors = new ArrayList<>();
+        List<Editor> otherEditors = new ArrayList<>();
+        FileDocumentManager fileDocumentManager = FileDocumentManager.getInstance();
+        for (Editor editor : editors) {
+            VirtualFile file = fileDocumentManager.getFile(editor.getDocument());
+            if (file != null && file.getFileType() == JavaFileType.INSTANCE) {
+                javaEditors.add(editor);
+            } else {
+                otherEditors.add(editor);
+            }
+        }
+        restartFoldingPasses(otherEditors);
+        if (javaEditors.isEmpty()) {
+            return;
+        }
+
+        ReadAction.nonBlocking(() -> computeChangedCallSites(javaEditors, oldSnapshot.matcher(), newSnapshot.matcher()))
+                .inSmartMode(project)
+                .expireWith(project)
+                .finishOnUiThread(ModalityState.defaultModalityState(), LoggerFoldingSettingsRefresher::apply)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * Restarts the folding passes of the files of the editors, which use the call sites detected with the new settings
+     *
+     * @param editors the editors
+     */
+    private void restartFoldingPasses(@NotNull List<Editor> editors) {
+
+        PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(project);
+        DaemonCodeAnalyzer daemonCodeAnalyzer = DaemonCodeAnalyzer.getInstance(project);
+        for (Editor editor : editors) {
+            PsiFile psiFile = psiDocumentManager.getPsiFile(editor.getDocument());
+            if (psiFile != null) {
+                daemonCodeAnalyzer.restart(psiFile);
+            }
+        }
+    }
+
+    /**
+     * Looks up the call sites of the logger classes whose matching was modified in the files of the editors. It must
+     * be invoked in a read action.
+     *
+     * @param editors    the editors
+     * @param oldMatcher the matcher of the canonical names before the modification
+     * @param newMatcher the matcher of the canonical names after the modification
+     * @return the call sites to unfold and fold of each editor
+     */
+    @NotNull
+    private List<EditorChanges> computeChangedCallSites(@NotNull List<Editor> editors, @NotNull LoggerNameMatcher oldMatcher,
+                                                        @NotNull LoggerNameMatcher newMatcher) {
+
+        Set<String> oldCanonicalNames = new HashSet<>(LoggerCallSiteIndex.getMatchingCanonicalNames(project, oldMatcher));
+        Set<String> newCanonicalNames = new HashSet<>(LoggerCallSiteIndex.getMatchingCanonicalNames(project, newMatcher));
+        Set<String> removedCanonicalNames = new HashSet<>(oldCanonicalNames);
+        removedCanonicalNames.removeAll(newCanonicalNames);
+        Set<String> addedCanonicalNames = new HashSet<>(newCanonicalNames);
+        addedCanonicalNames.removeAll(oldCanonicalNames);
+
+        List<EditorChanges> editorsChanges = new ArrayList<>();
+        if (removedCanonicalNames.isEmpty() && addedCanonicalNames.isEmpty()) {
+            return editorsChanges;
+        }
+        FileDocumentManager fileDocumentManager = FileDocumentManager.getInstance();
+        for (Editor editor : editors) {
+            VirtualFile file = fileDocumentManager.getFile(editor.getDocument());
+            if (editor.isDisposed() || file == null) {
+                continue;
+            }
+            editorsChanges.add(new EditorChanges(editor, editor.getDocument().getModificationStamp(),
+                    LoggerCallSiteIndex.getCallSites(project, file, removedCanonicalNames),
+                    LoggerCallSiteIndex.getCallSites(project, file, addedCanonicalNames)));
+        }
+        return editorsChanges;
+    }
+
+    /**
+     * Unfolds the call sites of the logger classes that are no longer matched and, if collapse by default is enabled,
+     * folds the call sites of the logger classes that are now matched, in the editors whose documents were not modified
+     * after the call sites were looked up
+     *
+     * @param editorsChanges the call sites to unfold and fold of each editor
+     */
+    private static void apply(@NotNull List<EditorChanges> editorsChanges) {
+
+        boolean collapseByDefault = LoggerFoldingApplicationSettings.getInstance().getState().getCollapseByDefault();
+        for (EditorChanges editorChanges : editorsChanges) {
+            Editor editor = editorChanges.editor();
+            if (editor.isDisposed() || editor.getDocument().getModificationStamp() != editorChanges.modificationStamp()) {
+                continue;
+            }
+            FoldingModelHelper.unfold(editor, editorChanges.callSitesToUnfold());
+            if (collapseByDefault) {
+                FoldingModelHelper.fold(editor, editorChanges.callSitesToFold());
+            }
+        }
+    }
+
+    /**
+     * Call sites of an editor whose logger classes are no longer matched or are now matched
+     *
+     * @param editor            the editor
+     * @param modificationStamp the modification stamp of the document when the call sites were looked up
+     * @param callSitesToUnfold the call sites of the logger classes that are no longer matched
+     * @param callSitesToFold   the call sites of the logger classes that are now matched
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record EditorChanges(@NotNull Editor editor, long modificationStamp,
+                                 @NotNull List<LoggerCallSiteIndex.Entry> callSitesToUnfold,
+                                 @NotNull List<LoggerCallSiteIndex.Entry> callSitesToFold) {
+
+    }
+
+}
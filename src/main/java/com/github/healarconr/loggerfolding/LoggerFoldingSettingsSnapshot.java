@@ -0,0 +1,59 @@
+package com.github.healarconr.loggerfolding;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the Logger Folding project settings. A new snapshot with a new version is published every time
+ * the settings are modified, so readers never observe a partially applied modification and caches can be keyed by the
+ * snapshot version. Caches that outlive the application are keyed by the snapshot fingerprint instead, which is the
+ * same for equal settings.
+ *
+ * @param version       the version of the snapshot, unique in the application
+ * @param matcher       the matcher of the canonical names of the logger classes
+ * @param receiverNames the names of the receivers of logger method calls
+ * @param matchSubtypes true if the subtypes of the logger classes are also matched
+ * @param fingerprint   the sorted settings as text, stable across restarts
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public record LoggerFoldingSettingsSnapshot(long version, @NotNull LoggerNameMatcher matcher,
+                                            @NotNull Set<String> receiverNames, boolean matchSubtypes,
+                                            @NotNull String fingerprint) {
+
+    private static final AtomicLong NEXT_VERSION = new AtomicLong();
+
+    /**
+     * Creates a snapshot of a settings state with a new version
+     *
+     * @param state the Logger Folding project settings state
+     * @return the snapshot
+     */
+    @NotNull
+    static LoggerFoldingSettingsSnapshot of(@NotNull LoggerFoldingProjectSettings.State state) {
+
+        return new LoggerFoldingSettingsSnapshot(NEXT_VERSION.incrementAndGet(),
+                LoggerNameMatcher.compile(state.getCanonicalNames()),
+                Collections.unmodifiableSet(new HashSet<>(state.getReceiverNames())), state.getMatchSubtypes(),
+                state.getMatchSubtypes() + "\n" + join(state.getCanonicalNames()) + "\n\n" + join(state.getReceiverNames()));
+    }
+
+    /**
+     * Joins names in a stable order
+     *
+     * @param names the names
+     * @return the sorted distinct names separated by new lines
+     */
+    @NotNull
+    private static String join(@NotNull Collection<String> names) {
+
+        return names.stream().filter(Objects::nonNull).sorted().distinct().collect(Collectors.joining("\n"));
+    }
+
+}
@@ -0,0 +1,315 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low overhead counters of the folding passes and the logger method call matching, overall and per file. The counters
+ * are always enabled and can be incremented concurrently from any thread. The counters incremented while the call
+ * sites of a file are collected are accumulated in the counters of the collection pass, which are merged into the
+ * counters of the file when the pass ends. Only the counters of the {@value #MAX_FILES} most recently used files are
+ * kept.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class LoggerFoldingStatistics {
+
+    private static final Counters OVERALL = new Counters();
+
+    private static final int MAX_FILES = 1000;
+
+    private static final Map<String, Counters> FILES = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Counters> eldest) {
+            return size() > MAX_FILES;
+        }
+    });
+
+    private static final ThreadLocal<Counters> CURRENT_PASS = new ThreadLocal<>();
+
+    private LoggerFoldingStatistics() {
+
+        super();
+    }
+
+    /**
+     * Increments a counter
+     *
+     * @param counter the counter
+     */
+    static void increment(@NotNull Counter counter) {
+
+        add(counter, 1);
+    }
+
+    /**
+     * Adds a value to a counter
+     *
+     * @param counter the counter
+     * @param value   the value
+     */
+    static void add(@NotNull Counter counter, long value) {
+
+        OVERALL.add(counter, value);
+        Counters pass = CURRENT_PASS.get();
+        if (pass != null) {
+            pass.add(counter, value);
+        }
+    }
+
+    /**
+     * Increments a counter overall and in the counters of a file
+     *
+     * @param psiFile the PSI file
+     * @param counter the counter
+     */
+    static void increment(@NotNull PsiFile psiFile, @NotNull Counter counter) {
+
+        OVERALL.add(counter, 1);
+        getFileCounters(psiFile).add(counter, 1);
+    }
+
+    /**
+     * Begins a pass that collects the call sites of a file in the current thread
+     *
+     * @return the counters of the pass that was in progress in the current thread, to be restored when the pass ends
+     */
+    @Nullable
+    static Counters beginPass() {
+
+        Counters previousPass = CURRENT_PASS.get();
+        CURRENT_PASS.set(new Counters());
+        return previousPass;
+    }
+
+    /**
+     * Ends the pass in progress in the current thread and merges its counters into the counters of the file. The time
+     * spent matching is the time spent in the detector, which excludes the walk of the tree, minus the time spent
+     * computing the text ranges and placeholder texts of the fold regions.
+     *
+     * @param psiFile         the PSI file
+     * @param previousPass    the counters returned by {@link #beginPass()}
+     * @param elementsVisited the number of elements visited
+     * @param callsMatched    the number of logger method calls matched
+     * @param detectorNanos   the nanoseconds spent in the detector
+     */
+    static void endPass(@NotNull PsiFile psiFile, @Nullable Counters previousPass, long elementsVisited, long callsMatched,
+                        long detectorNanos) {
+
+        Counters pass = CURRENT_PASS.get();
+        if (previousPass != null) {
+            CURRENT_PASS.set(previousPass);
+        } else {
+            CURRENT_PASS.remove();
+        }
+        if (pass == null) {
+            return;
+        }
+        long matchingNanos = Math.max(detectorNanos - pass.get(Counter.PLACEHOLDER_NANOS), 0);
+        OVERALL.add(Counter.ELEMENTS_VISITED, elementsVisited);
+        OVERALL.add(Counter.CALLS_MATCHED, callsMatched);
+        OVERALL.add(Counter.MATCHING_NANOS, matchingNanos);
+        pass.add(Counter.ELEMENTS_VISITED, elementsVisited);
+        pass.add(Counter.CALLS_MATCHED, callsMatched);
+        pass.add(Counter.MATCHING_NANOS, matchingNanos);
+        getFileCounters(psiFile).addAll(pass);
+    }
+
+    /**
+     * Returns the overall value of a counter
+     *
+     * @param counter the counter
+     * @return the value of the counter
+     */
+    static long get(@NotNull Counter counter) {
+
+        return OVERALL.get(counter);
+    }
+
+    /**
+     * Returns the counters of the files
+     *
+     * @return a copy of the counters mapped by file path
+     */
+    @NotNull
+    static Map<String, Counters> getFiles() {
+
+        synchronized (FILES) {
+            return new HashMap<>(FILES);
+        }
+    }
+
+    /**
+     * Resets all the counters and forgets the files
+     */
+    static void reset() {
+
+        OVERALL.reset();
+        FILES.clear();
+    }
+
+    /**
+     * Returns the path of the virtual file of a PSI file, or its name if it has no virtual file
+     *
+     * @param psiFile the PSI file
+     * @return the path or the name of the file
+     */
+    @NotNull
+    static String getFilePath(@NotNull PsiFile psiFile) {
+
+        VirtualFile virtualFile = psiFile.getVirtualFile();
+        return virtualFile != null ? virtualFile.getPath() : psiFile.getName();
+    }
+
+    /**
+     * Returns the counters of a file, creating them if needed
+     *
+     * @param psiFile the PSI file
+     * @return the counters of the file
+     */
+    @NotNull
+    private static Counters getFileCounters(@NotNull PsiFile psiFile) {
+
+        return FILES.computeIfAbsent(getFilePath(psiFile), key -> new Counters());
+    }
+
+    /**
+     * Set of counters
+     *
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    static final class Counters {
+
+        private final LongAdder[] values = new LongAdder[Counter.values().length];
+
+        private Counters() {
+            for (int index = 0; index < values.length; index++) {
+                values[index] = new LongAdder();
+            }
+        }
+
+        private void add(Counter counter, long value) {
+            values[counter.ordinal()].add(value);
+        }
+
+        private void addAll(Counters counters) {
+            for (int index = 0; index < values.length; index++) {
+                values[index].add(counters.values[index].sum());
+            }
+        }
+
+        private void reset() {
+            for (LongAdder value : values) {
+                value.reset();
+            }
+        }
+
+        /**
+         * Returns the value of a counter
+         *
+         * @param counter the counter
+         * @return the value of the counter
+         */
+        long get(@NotNull Counter counter) {
+            return values[counter.ordinal()].sum();
+        }
+    }
+
+    /**
+     * Counters of the folding passes and of the stages of the Java logger method call matching
+     *
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    enum Counter {
+
+        /**
+         * Folding passes run by the folding builders
+         */
+        FOLDING_PASSES,
+
+        /**
+         * Requests of the call sites of a file
+         */
+        CACHE_REQUESTS,
+
+        /**
+         * Requests of the call sites of a file not answered by the cache, so the call sites were computed
+         */
+        CACHE_MISSES,
+
+        /**
+         * Computations of the call sites of a file answered by the disk cache
+         */
+        DISK_CACHE_HITS,
+
+        /**
+         * Elements visited while collecting the call sites of a file
+         */
+        ELEMENTS_VISITED,
+
+        /**
+         * Logger method calls matched while collecting the call sites of a file
+         */
+        CALLS_MATCHED,
+
+        /**
+         * References resolved and types inferred while matching
+         */
+        RESOLVES,
+
+        /**
+         * Nanoseconds spent matching the method calls, excluding the walk of the files and the placeholder texts
+         */
+        MATCHING_NANOS,
+
+        /**
+         * Nanoseconds spent computing the text ranges and placeholder texts of the fold regions
+         */
+        PLACEHOLDER_NANOS,
+
+        /**
+         * Method calls rejected by the argument count, the qualifier shape or the method name
+         */
+        JAVA_SYNTACTIC_REJECTIONS,
+
+        /**
+         * Method calls matched by the qualifier text or its import statement
+         */
+        JAVA_TEXTUAL_MATCHES,
+
+        /**
+         * Method calls rejected because the qualifier is an imported class that is not a logger class
+         */
+        JAVA_TEXTUAL_REJECTIONS,
+
+        /**
+         * Method calls matched by the logger declaration of the file that the qualifier resolves to
+         */
+        JAVA_DECLARATION_MATCHES,
+
+        /**
+         * Method calls matched by the inferred type of the qualifier
+         */
+        JAVA_TYPE_MATCHES,
+
+        /**
+         * Method calls matched by a super class or interface of the inferred type of the qualifier
+         */
+        JAVA_SUBTYPE_MATCHES,
+
+        /**
+         * Method calls rejected by the inferred type of the qualifier
+         */
+        JAVA_TYPE_REJECTIONS
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.github.healarconr.loggerfolding;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable matcher of the canonical names of the logger classes. The configured names are compiled into two indexes:
+ * the canonical names and the package names of the package wildcards (e.g. {@code com.acme.logging.*}), so every
+ * lookup is a constant time hash set lookup. Simple names never match, since a simple name only identifies a class once
+ * its import or declaration is known. It does not depend on the PSI, so it can be used without the IDE.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public final class LoggerNameMatcher {
+
+    private static final String PACKAGE_WILDCARD_SUFFIX = ".*";
+
+    /**
+     * Canonical names of the logger classes of the logging libraries whose methods are known
+     */
+    private static final Set<String> KNOWN_LOGGER_CLASSES = Set.of("java.util.logging.Logger", "org.slf4j.Logger",
+            "org.apache.commons.logging.Log", "org.apache.log4j.Logger", "org.apache.logging.log4j.Logger",
+            "android.util.Log", "timber.log.Timber", "mu.KLogger");
+
+    /**
+     * Names of methods that have arguments, are commonly called on objects that are not loggers and are not declared
+     * by the {@link #KNOWN_LOGGER_CLASSES}. The methods of {@link Object} are not included, since every logger class
+     * inherits them.
+     */
+    private static final Set<String> NON_LOGGER_METHOD_NAMES = Set.of("add", "addAll", "append", "apply", "collect",
+            "contains", "containsKey", "filter", "flatMap", "forEach", "get", "getOrDefault", "map", "put",
+            "putAll", "remove", "removeAll", "replace", "set", "setText", "startsWith", "endsWith", "substring", "valueOf");
+
+    /**
+     * Prefixes of the packages of the standard libraries of Java and Kotlin, whose classes are not indexed unless they
+     * are {@link #KNOWN_LOGGER_CLASSES} or their simple name contains {@value #LOGGER_SIMPLE_NAME_PART}
+     */
+    private static final List<String> STANDARD_LIBRARY_PACKAGE_PREFIXES = List.of("java.", "javax.", "kotlin.",
+            "kotlinx.");
+
+    private static final String LOGGER_SIMPLE_NAME_PART = "Log";
+
+    private final Set<String> canonicalNames;
+    private final Set<String> packageNames;
+    private final boolean knownLoggerClassesOnly;
+
+    private LoggerNameMatcher(Set<String> canonicalNames, Set<String> packageNames) {
+        this.canonicalNames = canonicalNames;
+        this.packageNames = packageNames;
+        this.knownLoggerClassesOnly = packageNames.isEmpty() && KNOWN_LOGGER_CLASSES.containsAll(canonicalNames);
+    }
+
+    /**
+     * Compiles a matcher from the configured names. Blank names are ignored.
+     *
+     * @param names the canonical names of the logger classes and the package wildcards
+     * @return the matcher
+     */
+    @NotNull
+    static LoggerNameMatcher compile(@NotNull Collection<String> names) {
+
+        Set<String> canonicalNames = new HashSet<>();
+        Set<String> packageNames = new HashSet<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) {
+                continue;
+            }
+            name = name.trim();
+            if (name.endsWith(PACKAGE_WILDCARD_SUFFIX)) {
+                packageNames.add(name.substring(0, name.length() - PACKAGE_WILDCARD_SUFFIX.length()));
+            } else {
+                canonicalNames.add(name);
+            }
+        }
+        return new LoggerNameMatcher(Set.copyOf(canonicalNames), Set.copyOf(packageNames));
+    }
+
+    /**
+     * Determines if a canonical name matches a configured canonical name or package wildcard
+     *
+     * @param name the canonical name of a class
+     * @return true if the name matches, false if it does not or if it is a simple name
+     */
+    public boolean matches(@Nullable String name) {
+
+        if (name == null) {
+            return false;
+        }
+        int lastDotIndex = name.lastIndexOf('.');
+        return lastDotIndex > 0 && (canonicalNames.contains(name) || packageNames.contains(name.substring(0, lastDotIndex)));
+    }
+
+    /**
+     * Determines if a method name cannot be the name of a method of the configured logger classes. Only the methods of
+     * the {@link #KNOWN_LOGGER_CLASSES} are known, so no method name is rejected if a custom logger class or a package
+     * wildcard is configured.
+     *
+     * @param methodName the method name
+     * @return true if all the configured logger classes are known and none of them declares a method with that name
+     */
+    public boolean isNonLoggerMethodName(@Nullable String methodName) {
+
+        return knownLoggerClassesOnly && NON_LOGGER_METHOD_NAMES.contains(methodName);
+    }
+
+    /**
+     * Determines if every class matched by the configured names can be stored in the {@link LoggerCallSiteIndex}
+     *
+     * @return false if a configured canonical name or package wildcard refers to the standard libraries and is not a
+     * plausible logger class
+     */
+    boolean isIndexable() {
+
+        for (String canonicalName : canonicalNames) {
+            if (!isIndexableClass(canonicalName)) {
+                return false;
+            }
+        }
+        for (String packageName : packageNames) {
+            if (isStandardLibraryName(packageName + '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines if a method call detected without resolving references is a plausible logger method call, so it is
+     * stored in the {@link LoggerCallSiteIndex}. The index does not depend on the configured names, so it rejects the
+     * {@link #NON_LOGGER_METHOD_NAMES} and the classes of the standard libraries that are not loggers, such as the
+     * collections, {@link StringBuilder} or the {@link java.io.PrintStream} of {@code System.out}.
+     *
+     * @param canonicalName the canonical name of the class of the receiver
+     * @param methodName    the method name
+     * @return true if the method call can be a logger method call
+     */
+    static boolean isIndexable(@NotNull String canonicalName, @Nullable String methodName) {
+
+        return methodName != null && !NON_LOGGER_METHOD_NAMES.contains(methodName) && isIndexableClass(canonicalName);
+    }
+
+    private static boolean isIndexableClass(@NotNull String canonicalName) {
+
+        return KNOWN_LOGGER_CLASSES.contains(canonicalName) || !isStandardLibraryName(canonicalName)
+                || canonicalName.substring(canonicalName.lastIndexOf('.') + 1).contains(LOGGER_SIMPLE_NAME_PART);
+    }
+
+    private static boolean isStandardLibraryName(@NotNull String name) {
+
+        for (String prefix : STANDARD_LIBRARY_PACKAGE_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first of the names that matches the configured names
+     *
+     * @param names the canonical names of classes
+     * @return the first name that matches or null if none matches
+     */
+    @Nullable
+    String findMatch(@NotNull Collection<String> names) {
+
+        for (String name : names) {
+            if (matches(name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+}
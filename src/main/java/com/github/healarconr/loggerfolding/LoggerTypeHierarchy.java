@@ -0,0 +1,104 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.lang.Language;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Helper class to determine if a class is a subtype of a logger class. The results are memoized per class in a cached
+ * value that is invalidated when the structure of Java or Kotlin code or the Logger Folding project settings are
+ * modified, so the hierarchy of a class is walked once even if the class is the type of the receiver of many method
+ * calls. The cached values are stored in the classes, so they do not keep the classes reachable.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class LoggerTypeHierarchy {
+
+    private static final Key<CachedValue<LoggerSuperClass>> LOGGER_SUPER_CLASS_KEY = Key.create("LoggerFolding.loggerSuperClass");
+
+    private static final String KOTLIN_LANGUAGE_ID = "kotlin";
+
+    private LoggerTypeHierarchy() {
+
+        super();
+    }
+
+    /**
+     * Returns the canonical name of the first super class or interface of a class that is matched by the matcher
+     *
+     * @param psiClass the class, or the light class of a Kotlin class
+     * @param matcher  the matcher of the canonical names of the logger classes
+     * @return the canonical name of the logger class or null if the class is not a subtype of a logger class
+     */
+    @Nullable
+    static String findLoggerSuperClass(@NotNull PsiClass psiClass, @NotNull LoggerNameMatcher matcher) {
+
+        Project project = psiClass.getProject();
+        LoggerFoldingProjectSettings settings = LoggerFoldingProjectSettings.getInstance(project);
+        LoggerSuperClass loggerSuperClass = CachedValuesManager.getCachedValue(psiClass, LOGGER_SUPER_CLASS_KEY, () -> {
+            LoggerNameMatcher currentMatcher = settings.getSnapshot().matcher();
+            return CachedValueProvider.Result.create(new LoggerSuperClass(currentMatcher,
+                            computeLoggerSuperClass(psiClass, currentMatcher)),
+                    PsiModificationTracker.getInstance(project).forLanguages(LoggerTypeHierarchy::isJavaOrKotlin),
+                    settings.getModificationTracker());
+        });
+        // The settings were modified after the cache was computed
+        return loggerSuperClass.matcher() == matcher ? loggerSuperClass.canonicalName() :
+                computeLoggerSuperClass(psiClass, matcher);
+    }
+
+    /**
+     * Walks the super classes and interfaces of a class looking for one that is matched by the matcher
+     *
+     * @param psiClass the class
+     * @param matcher  the matcher of the canonical names of the logger classes
+     * @return the canonical name of the logger class or null if the class is not a subtype of a logger class
+     */
+    @Nullable
+    private static String computeLoggerSuperClass(@NotNull PsiClass psiClass, @NotNull LoggerNameMatcher matcher) {
+
+        String[] loggerSuperClass = new String[1];
+        InheritanceUtil.processSupers(psiClass, false, superClass -> {
+            String qualifiedName = superClass.getQualifiedName();
+            if (matcher.matches(qualifiedName)) {
+                loggerSuperClass[0] = qualifiedName;
+                return false;
+            }
+            return true;
+        });
+        return loggerSuperClass[0];
+    }
+
+    /**
+     * Determines if a language is Java or Kotlin
+     *
+     * @param language the language
+     * @return true if the language is Java or Kotlin
+     */
+    private static boolean isJavaOrKotlin(@NotNull Language language) {
+
+        return language.is(JavaLanguage.INSTANCE) || KOTLIN_LANGUAGE_ID.equals(language.getID());
+    }
+
+    /**
+     * Memoized logger super class of a class
+     *
+     * @param matcher       the matcher used to find the logger super class
+     * @param canonicalName the canonical name of the logger super class or null if the class is not a subtype of a
+     *                      logger class
+     * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+     */
+    private record LoggerSuperClass(@NotNull LoggerNameMatcher matcher, @Nullable String canonicalName) {
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.github.healarconr.loggerfolding;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Helper class to format the placeholder texts of the fold regions of logger method calls. It does not depend on the
+ * PSI, so it can be used without the IDE.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class PlaceholderTexts {
+
+    /**
+     * Placeholder of a folded argument list
+     */
+    @SuppressWarnings("UnnecessaryUnicodeEscape")
+    static final String ARGUMENTS = "(\u2026)";
+
+    /**
+     * Placeholder of a folded lambda argument
+     */
+    @SuppressWarnings("UnnecessaryUnicodeEscape")
+    static final String LAMBDA = "{\u2026}";
+
+    @SuppressWarnings("UnnecessaryUnicodeEscape")
+    private static final String RUN_COUNT_PREFIX = " \u00d7";
+
+    private static final char SEMICOLON = ';';
+
+    private PlaceholderTexts() {
+
+        super();
+    }
+
+    /**
+     * Formats the placeholder text of a Java logger method call
+     *
+     * @param methodExpressionText the text of the method expression, e.g. {@code log.debug}
+     * @param withSemicolon        true if the fold region includes the semicolon next to the method call
+     * @return the method expression text followed by "(…)" and, if included, the semicolon
+     */
+    @NotNull
+    static String formatJavaMethodCall(@NotNull String methodExpressionText, boolean withSemicolon) {
+
+        StringBuilder placeholderText = new StringBuilder(methodExpressionText.length() + ARGUMENTS.length() + 1);
+        placeholderText.append(methodExpressionText).append(ARGUMENTS);
+        if (withSemicolon) {
+            placeholderText.append(SEMICOLON);
+        }
+        return placeholderText.toString();
+    }
+
+    /**
+     * Formats the placeholder text of a run of adjacent logger method calls folded as a single region
+     *
+     * @param firstPlaceholderText the placeholder text of the first method call of the run
+     * @param count                the number of method calls of the run
+     * @return the placeholder text of the first method call followed by "×" and the number of method calls
+     */
+    @NotNull
+    static String formatRun(@NotNull String firstPlaceholderText, int count) {
+
+        return firstPlaceholderText + RUN_COUNT_PREFIX + count;
+    }
+
+}
@@ -1,10 +1,13 @@
 package com.github.healarconr.loggerfolding;
 
-import java.util.List;
-import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
 
 /**
- * Helper class to determine if a canonical text is contained in a canonical names set
+ * Helper class to obtain canonical names from type texts and receiver names without resolving references. It does not
+ * depend on the PSI, so it can be used without the IDE.
  *
  * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
  */
@@ -16,19 +19,77 @@ final class PsiHelper {
     }
 
     /**
-     * Determines if any of the canonical texts is contained in the canonical names set
+     * Returns the canonical name of the class of a receiver without resolving references. The receiver name is looked
+     * up in the declared variables first and then in the imported classes, for static method calls.
+     *
+     * @param receiverName           the simple name of the receiver
+     * @param variableCanonicalNames the canonical names of the declared types of the variables mapped by variable name
+     * @param importedCanonicalNames the imported canonical names mapped by simple name
+     * @return the canonical name or null if it could not be obtained
+     */
+    @Nullable
+    static String getCanonicalNameFromReceiverName(@NotNull String receiverName, @NotNull Map<String, String> variableCanonicalNames,
+                                                   @NotNull Map<String, String> importedCanonicalNames) {
+
+        String canonicalName = variableCanonicalNames.get(receiverName);
+        return canonicalName != null ? canonicalName : importedCanonicalNames.get(receiverName);
+    }
+
+    /**
+     * Returns the canonical name of a type text without resolving references. Type arguments and nullability marks are
+     * ignored, qualified texts are returned as they are and simple names are looked up in the imported canonical names.
+     *
+     * @param typeText               the type text
+     * @param importedCanonicalNames the imported canonical names mapped by simple name
+     * @return the canonical name or null if it could not be obtained
+     */
+    @Nullable
+    static String getCanonicalNameFromTypeText(@NotNull String typeText, @NotNull Map<String, String> importedCanonicalNames) {
+
+        int endIndex = typeText.indexOf('<');
+        String name = (endIndex < 0 ? typeText : typeText.substring(0, endIndex)).trim();
+        if (name.endsWith("?")) {
+            name = name.substring(0, name.length() - 1);
+        }
+        if (!isQualifiedName(name)) {
+            return null;
+        }
+        if (name.indexOf('.') >= 0) {
+            return name;
+        }
+        return importedCanonicalNames.get(name);
+    }
+
+    /**
+     * Returns the simple name of a canonical name
+     *
+     * @param canonicalName the canonical name
+     * @return the part of the canonical name after the last dot
+     */
+    @NotNull
+    static String getSimpleName(@NotNull String canonicalName) {
+
+        return canonicalName.substring(canonicalName.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Determines if a text is a simple or qualified name, i.e. a sequence of identifiers separated by dots
      *
-     * @param canonicalTexts    the canonical texts
-     * @param canonicalNamesSet the canonical names set
-     * @return true if any of the canonical texts is contained in the canonical names set, false otherwise
+     * @param text the text
+     * @return true if the text is a simple or qualified name
      */
-    static boolean isAnyCanonicalTextContainedInTheCanonicalNames(List<String> canonicalTexts, Set<String> canonicalNamesSet) {
-        for (String canonicalText : canonicalTexts) {
-            if (canonicalNamesSet.contains(canonicalText)) {
-                return true;
+    static boolean isQualifiedName(@NotNull String text) {
+
+        if (text.isEmpty() || text.startsWith(".") || text.endsWith(".")) {
+            return false;
+        }
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            if (character != '.' && !Character.isJavaIdentifierPart(character)) {
+                return false;
             }
         }
-        return false;
+        return true;
     }
 
 }
@@ -0,0 +1,78 @@
+package com.github.healarconr.loggerfolding;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Java Flight Recorder event of the resolution of a reference or the inference of a type while matching a logger method
+ * call. No event is allocated while the event type is disabled, which is the case unless a recording enables it.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+@Name("com.github.healarconr.loggerfolding.Resolve")
+@Label("Logger Folding Resolve")
+@Category("Logger Folding")
+@Description("Resolution of a reference or inference of a type while matching a logger method call")
+@StackTrace(false)
+final class ResolveEvent extends Event {
+
+    static final String JAVA = "Java";
+    static final String KOTLIN = "Kotlin";
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(ResolveEvent.class);
+
+    private static final ResolveEvent DISABLED = new ResolveEvent();
+
+    @Label("Language")
+    String language;
+
+    @Label("Step")
+    String step;
+
+    @Label("Resolved")
+    boolean resolved;
+
+    /**
+     * Creates and begins an event if the event type is enabled
+     *
+     * @param language the language of the file
+     * @param step     the resolution step
+     * @return the event, or a shared event that is never committed if the event type is disabled
+     */
+    @NotNull
+    static ResolveEvent start(@NotNull String language, @NotNull String step) {
+
+        if (!EVENT_TYPE.isEnabled()) {
+            return DISABLED;
+        }
+        ResolveEvent event = new ResolveEvent();
+        event.language = language;
+        event.step = step;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and commits it if it is enabled and its duration is within the threshold
+     *
+     * @param resolved true if the reference was resolved or the type was inferred
+     */
+    void finish(boolean resolved) {
+
+        if (this == DISABLED) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            this.resolved = resolved;
+            commit();
+        }
+    }
+
+}
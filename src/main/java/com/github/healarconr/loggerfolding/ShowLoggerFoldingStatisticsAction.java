@@ -0,0 +1,78 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.ui.Messages;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Diagnostic action that shows the {@link LoggerFoldingStatistics} overall and for the files with the most time spent
+ * matching, and lets the user reset them
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class ShowLoggerFoldingStatisticsAction extends AnAction {
+
+    private static final String TITLE = "Logger Folding Statistics";
+
+    private static final int MAX_FILES = 10;
+
+    private static final int RESET_BUTTON_INDEX = 0;
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent actionEvent) {
+
+        StringBuilder message = new StringBuilder("Overall\n");
+        appendCounters(message, LoggerFoldingStatistics::get);
+
+        List<Map.Entry<String, LoggerFoldingStatistics.Counters>> files = new ArrayList<>(LoggerFoldingStatistics
+                .getFiles().entrySet());
+        files.sort(Comparator.comparingLong((Map.Entry<String, LoggerFoldingStatistics.Counters> file) -> file.getValue()
+                .get(LoggerFoldingStatistics.Counter.MATCHING_NANOS)).reversed());
+        for (Map.Entry<String, LoggerFoldingStatistics.Counters> file : files.subList(0, Math.min(files.size(), MAX_FILES))) {
+            message.append('\n').append(file.getKey()).append('\n');
+            appendCounters(message, file.getValue()::get);
+        }
+
+        int buttonIndex = Messages.showDialog(actionEvent.getProject(), message.toString().trim(), TITLE,
+                new String[]{"Reset", Messages.getOkButton()}, 1, Messages.getInformationIcon());
+        if (buttonIndex == RESET_BUTTON_INDEX) {
+            LoggerFoldingStatistics.reset();
+        }
+    }
+
+    /**
+     * Appends the counters to the message, one per line, showing the nanoseconds as milliseconds
+     *
+     * @param message the message
+     * @param values  the function that returns the value of a counter
+     */
+    private static void appendCounters(StringBuilder message, ToLongFunction<LoggerFoldingStatistics.Counter> values) {
+
+        for (LoggerFoldingStatistics.Counter counter : LoggerFoldingStatistics.Counter.values()) {
+            long value = values.applyAsLong(counter);
+            message.append("    ");
+            if (counter.name().endsWith("_NANOS")) {
+                message.append(counter.name(), 0, counter.name().length() - "_NANOS".length()).append(" (ms): ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(value));
+            } else {
+                message.append(counter.name()).append(": ").append(value);
+            }
+            message.append('\n');
+        }
+    }
+
+}
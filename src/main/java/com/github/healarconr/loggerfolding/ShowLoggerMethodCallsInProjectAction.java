@@ -0,0 +1,61 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Action that shows the number of logger method calls of each logger class in the project using the logger call site
+ * index
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class ShowLoggerMethodCallsInProjectAction extends AnAction {
+
+    private static final String TITLE = "Logger Method Calls in Project";
+
+    @Override
+    public void update(AnActionEvent actionEvent) {
+
+        actionEvent.getPresentation().setEnabledAndVisible(actionEvent.getProject() != null);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent actionEvent) {
+
+        Project project = actionEvent.getProject();
+        if (project == null) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        boolean completed = ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> ReadAction.run(() -> {
+            GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+            LoggerNameMatcher matcher = LoggerFoldingProjectSettings.getInstance(project).getSnapshot().matcher();
+            for (String canonicalName : LoggerCallSiteIndex.getMatchingCanonicalNames(project, matcher)) {
+                int[] counts = LoggerCallSiteIndex.countCallSites(project, canonicalName, scope);
+                if (counts[0] > 0) {
+                    message.append(canonicalName).append(": ").append(counts[0]).append(" calls in ").append(counts[1])
+                            .append(" files\n");
+                }
+            }
+        }), TITLE, true, project);
+
+        if (completed) {
+            Messages.showInfoMessage(project, message.length() > 0 ? message.toString().trim() :
+                    "No logger method calls found", TITLE);
+        }
+    }
+
+}
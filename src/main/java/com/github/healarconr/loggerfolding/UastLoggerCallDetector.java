@@ -0,0 +1,247 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.lang.Language;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UQualifiedReferenceExpression;
+import org.jetbrains.uast.UReferenceExpression;
+import org.jetbrains.uast.USimpleNameReferenceExpression;
+import org.jetbrains.uast.UastCallKind;
+import org.jetbrains.uast.UastContextKt;
+import org.jetbrains.uast.UastLanguagePlugin;
+
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fallback detector of the logger method calls of the languages supported by UAST, e.g. Groovy or Scala. A method call
+ * matches if the class of its receiver, or one of its super classes and interfaces if subtypes are matched, is a logger
+ * class. Without resolving references, a method call matches if the name of its receiver is one of the configured
+ * receiver names. Only the composite elements are converted to UAST, and only to qualified expressions and method
+ * calls, and the receiver of a method call is resolved only if its method name can be the name of a method of a logger
+ * class. The method calls are not indexed and adjacent method calls are not coalesced.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class UastLoggerCallDetector implements LoggerCallDetector {
+
+    @Override
+    public boolean isApplicable(@NotNull PsiFile psiFile) {
+
+        Language language = psiFile.getLanguage();
+        for (UastLanguagePlugin plugin : UastLanguagePlugin.Companion.getInstances()) {
+            if (plugin.getLanguage().equals(language)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean canContainMethodCalls(@NotNull PsiElement element) {
+        return element.getFirstChild() != null && !(element instanceof PsiComment) && !(element instanceof PsiWhiteSpace);
+    }
+
+    @NotNull
+    @Override
+    public Function<PsiElement, LoggerCallSite> createDetector(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        String language = psiFile.getLanguage().getDisplayName();
+        LoggerNameMatcher matcher = snapshot.matcher();
+        boolean matchSubtypes = snapshot.matchSubtypes();
+        Predicate<UCallExpression> filter = callExpression -> matchSubtypes
+                || !matcher.isNonLoggerMethodName(callExpression.getMethodName());
+        return element -> {
+            UCallExpression callExpression = getMethodCall(element, filter);
+            String canonicalName = callExpression != null ? getLoggerCanonicalName(callExpression, snapshot, language) :
+                    null;
+            return canonicalName == null ? null :
+                    LoggerCallSites.createCallSite(element, canonicalName, (sourcePsi, name) -> createCallSite(sourcePsi,
+                            callExpression, name));
+        };
+    }
+
+    @NotNull
+    @Override
+    public Function<PsiElement, LoggerCallSite> createSyntacticDetector(@NotNull PsiFile psiFile, @NotNull LoggerFoldingSettingsSnapshot snapshot) {
+
+        Set<String> receiverNames = snapshot.receiverNames();
+        Predicate<UCallExpression> filter = callExpression ->
+                callExpression.getReceiver() instanceof USimpleNameReferenceExpression receiver
+                        && receiverNames.contains(receiver.getIdentifier());
+        return element -> {
+            UCallExpression callExpression = getMethodCall(element, filter);
+            if (callExpression == null) {
+                return null;
+            }
+            return LoggerCallSites.createCallSite(element, null, (sourcePsi, name) -> createCallSite(sourcePsi,
+                    callExpression, name));
+        };
+    }
+
+    @Nullable
+    @Override
+    public PsiElement getEnclosingStatement(@NotNull PsiElement element) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public PsiElement findMethodCall(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        return PsiTreeUtil.findElementOfClassAtRange(psiFile, callSite.startOffset(), callSite.elementEndOffset(),
+                PsiElement.class);
+    }
+
+    @Nullable
+    @Override
+    public String getMethodName(@NotNull PsiFile psiFile, @NotNull LoggerCallSite callSite) {
+
+        PsiElement methodCall = findMethodCall(psiFile, callSite);
+        UCallExpression callExpression = methodCall != null ? getMethodCall(methodCall, call -> true) : null;
+        return callExpression != null ? callExpression.getMethodName() : null;
+    }
+
+    @Nullable
+    @Override
+    public String getPlaceholderText(@NotNull PsiElement methodCall) {
+
+        UCallExpression callExpression = getMethodCall(methodCall, call -> true);
+        return callExpression != null ? getPlaceholderText(callExpression) : null;
+    }
+
+    /**
+     * Returns the method call with an explicit receiver of an element, or of the qualified expression that an element
+     * represents, so each method call is detected once. The leaf elements, e.g. identifiers and punctuation, are never
+     * method calls, so they are not converted to UAST, and the other elements are converted only if they represent a
+     * qualified expression or a method call.
+     *
+     * @param element the element
+     * @param filter  the predicate that the method call must satisfy, evaluated before its source element is obtained
+     * @return the method call or null if the element is not the source of a method call that satisfies the predicate
+     */
+    @Nullable
+    private static UCallExpression getMethodCall(@NotNull PsiElement element, @NotNull Predicate<UCallExpression> filter) {
+
+        if (element.getFirstChild() == null) {
+            return null;
+        }
+        UElement uElement = UastContextKt.toUElementOfExpectedTypes(element, UQualifiedReferenceExpression.class,
+                UCallExpression.class);
+        if (uElement instanceof UQualifiedReferenceExpression qualifiedExpression
+                && qualifiedExpression.getSelector() instanceof UCallExpression selector) {
+            uElement = selector;
+        }
+        if (!(uElement instanceof UCallExpression callExpression) || callExpression.getKind() != UastCallKind.METHOD_CALL
+                || callExpression.getReceiver() == null || !filter.test(callExpression)) {
+            return null;
+        }
+        // The source of the method call or of its qualified expression, whichever is the outermost one
+        return getSourcePsi(callExpression) == element ? callExpression : null;
+    }
+
+    /**
+     * Returns the canonical name of the logger class of the receiver of a method call
+     *
+     * @param callExpression the method call
+     * @param snapshot       the Logger Folding project settings snapshot
+     * @param language       the display name of the language of the file
+     * @return the canonical name that matched the method call or null if it is not a logger method call
+     */
+    @Nullable
+    private static String getLoggerCanonicalName(@NotNull UCallExpression callExpression,
+                                                 @NotNull LoggerFoldingSettingsSnapshot snapshot, @NotNull String language) {
+
+        UExpression receiver = callExpression.getReceiver();
+        if (receiver == null) {
+            return null;
+        }
+
+        LoggerFoldingStatistics.increment(LoggerFoldingStatistics.Counter.RESOLVES);
+        ResolveEvent resolveEvent = ResolveEvent.start(language, "Receiver class resolution");
+        PsiClass psiClass = null;
+        if (receiver instanceof UReferenceExpression referenceExpression
+                && referenceExpression.resolve() instanceof PsiClass staticReceiverClass) {
+            psiClass = staticReceiverClass;
+        } else {
+            PsiType type = receiver.getExpressionType();
+            if (type instanceof PsiClassType classType) {
+                psiClass = classType.resolve();
+            }
+        }
+        resolveEvent.finish(psiClass != null);
+        if (psiClass == null) {
+            return null;
+        }
+
+        LoggerNameMatcher matcher = snapshot.matcher();
+        String canonicalName = psiClass.getQualifiedName();
+        if (matcher.matches(canonicalName)) {
+            return canonicalName;
+        }
+        return snapshot.matchSubtypes() ? LoggerTypeHierarchy.findLoggerSuperClass(psiClass, matcher) : null;
+    }
+
+    /**
+     * Creates the call site of a method call, whose fold region is the text range of its source element
+     *
+     * @param sourcePsi      the source element of the method call returned by {@link #getSourcePsi(UCallExpression)}
+     * @param callExpression the method call
+     * @param canonicalName  the canonical name of the logger class or null if the method call was detected by the name
+     *                       of its receiver
+     * @return the call site
+     */
+    @NotNull
+    private static LoggerCallSite createCallSite(@NotNull PsiElement sourcePsi, @NotNull UCallExpression callExpression,
+                                                 @Nullable String canonicalName) {
+
+        int startOffset = sourcePsi.getTextRange().getStartOffset();
+        int endOffset = sourcePsi.getTextRange().getEndOffset();
+        return new LoggerCallSite(startOffset, endOffset, endOffset, getPlaceholderText(callExpression), canonicalName);
+    }
+
+    /**
+     * Returns the source element of the qualified expression of a method call, or of the method call itself if the
+     * receiver is not a separate expression in the language
+     *
+     * @param callExpression the method call
+     * @return the source element or null if the method call has no source element
+     */
+    @Nullable
+    private static PsiElement getSourcePsi(@NotNull UCallExpression callExpression) {
+
+        if (callExpression.getUastParent() instanceof UQualifiedReferenceExpression qualifiedExpression
+                && qualifiedExpression.getSelector() == callExpression && qualifiedExpression.getSourcePsi() != null) {
+            return qualifiedExpression.getSourcePsi();
+        }
+        return callExpression.getSourcePsi();
+    }
+
+    /**
+     * Returns the placeholder text used in the fold region of a method call
+     *
+     * @param callExpression the method call
+     * @return the receiver text and the method name followed by "(…)"
+     */
+    @NotNull
+    private static String getPlaceholderText(@NotNull UCallExpression callExpression) {
+
+        UExpression receiver = callExpression.getReceiver();
+        PsiElement receiverPsi = receiver != null ? receiver.getSourcePsi() : null;
+        String receiverText = receiverPsi != null ? receiverPsi.getText() : "";
+        return receiverText + "." + callExpression.getMethodName() + PlaceholderTexts.ARGUMENTS;
+    }
+
+}
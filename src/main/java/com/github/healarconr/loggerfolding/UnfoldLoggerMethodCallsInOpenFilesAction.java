@@ -0,0 +1,40 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Action to unfold logger method calls in all the files opened in the project. The call sites are computed in a
+ * cancellable background task and applied to the editors in batches.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class UnfoldLoggerMethodCallsInOpenFilesAction extends AnAction {
+
+    @Override
+    public void update(AnActionEvent actionEvent) {
+
+        actionEvent.getPresentation().setEnabledAndVisible(actionEvent.getProject() != null);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent actionEvent) {
+
+        Project project = actionEvent.getProject();
+        if (project == null) {
+            return;
+        }
+
+        ActionHelper.computeOpenFilesCallSitesInBackground(project, "Unfolding logger method calls in open files",
+                FoldingModelHelper::unfold);
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.github.healarconr.loggerfolding;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * Generator of large Java and Kotlin source files for the performance tests. A file declares a slf4j logger and other
+ * receivers, and consists of methods with five statements each. A percentage of the statements are logger method calls
+ * and the rest are method calls on other receivers, some of them with the method names used by loggers, and local
+ * variable declarations. The statements are chosen with a fixed seed, so the same file is generated every time.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class GeneratedSources {
+
+    /**
+     * Source of the slf4j logger interface, so the logger method calls can be resolved
+     */
+    static final String SLF4J_LOGGER = """
+            package org.slf4j;
+
+            public interface Logger {
+                void trace(String format, Object... arguments);
+                void debug(String format, Object... arguments);
+                void info(String format, Object... arguments);
+                void warn(String format, Object... arguments);
+                void error(String format, Object... arguments);
+            }
+            """;
+
+    /**
+     * Source of the slf4j logger factory
+     */
+    static final String SLF4J_LOGGER_FACTORY = """
+            package org.slf4j;
+
+            public final class LoggerFactory {
+                public static Logger getLogger(Class<?> type) {
+                    return null;
+                }
+            }
+            """;
+
+    /**
+     * Source of a class that is not a logger but has methods named like the logger methods
+     */
+    static final String AUDIT_TRAIL = """
+            package com.acme;
+
+            public class AuditTrail {
+                public void info(String format, Object... arguments) {
+                }
+            }
+            """;
+
+    private static final String[] LOGGER_METHOD_NAMES = {"trace", "debug", "info", "warn", "error"};
+
+    private static final int STATEMENTS_PER_METHOD = 5;
+
+    private static final long SEED = 42;
+
+    private GeneratedSources() {
+
+        super();
+    }
+
+    /**
+     * Generates a Java file
+     *
+     * @param className         the name of the class, which is also the name of the file
+     * @param lineCount         the approximate number of lines
+     * @param loggerCallPercent the percentage of the statements that are logger method calls
+     * @return the text of the file
+     */
+    @NotNull
+    static String generateJava(@NotNull String className, int lineCount, int loggerCallPercent) {
+
+        StringBuilder text = new StringBuilder(lineCount * 40);
+        text.append("package com.acme;\n\n")
+                .append("import java.util.List;\n")
+                .append("import org.slf4j.Logger;\n")
+                .append("import org.slf4j.LoggerFactory;\n\n")
+                .append("public class ").append(className).append(" {\n\n")
+                .append("    private static final Logger LOG = LoggerFactory.getLogger(").append(className).append(".class);\n")
+                .append("    private final AuditTrail audit = new AuditTrail();\n")
+                .append("    private final StringBuilder builder = new StringBuilder();\n")
+                .append("    private List<String> items;\n");
+
+        Random random = new Random(SEED);
+        int lines = 12;
+        for (int method = 0; lines < lineCount; method++) {
+            text.append("\n    public void method").append(method).append("(String value) {\n");
+            for (int statement = 0; statement < STATEMENTS_PER_METHOD; statement++) {
+                text.append("        ");
+                if (random.nextInt(100) < loggerCallPercent) {
+                    text.append("LOG.").append(pickLoggerMethodName(random)).append("(\"Value {} in method ")
+                            .append(method).append("\", value);\n");
+                } else {
+                    switch (random.nextInt(4)) {
+                        case 0 -> text.append("audit.info(\"Audited {}\", value);\n");
+                        case 1 -> text.append("items.add(value);\n");
+                        case 2 -> text.append("builder.append(value).append(").append(statement).append(");\n");
+                        default -> text.append("int length").append(statement).append(" = value.length();\n");
+                    }
+                }
+            }
+            text.append("    }\n");
+            lines += STATEMENTS_PER_METHOD + 3;
+        }
+        return text.append("}\n").toString();
+    }
+
+    /**
+     * Generates a Kotlin file
+     *
+     * @param className         the name of the class
+     * @param lineCount         the approximate number of lines
+     * @param loggerCallPercent the percentage of the statements that are logger method calls
+     * @return the text of the file
+     */
+    @NotNull
+    static String generateKotlin(@NotNull String className, int lineCount, int loggerCallPercent) {
+
+        StringBuilder text = new StringBuilder(lineCount * 40);
+        text.append("package com.acme\n\n")
+                .append("import org.slf4j.Logger\n")
+                .append("import org.slf4j.LoggerFactory\n\n")
+                .append("class ").append(className).append("(private val items: MutableList<String>) {\n\n")
+                .append("    private val log: Logger = LoggerFactory.getLogger(").append(className).append("::class.java)\n")
+                .append("    private val audit = AuditTrail()\n")
+                .append("    private val builder = StringBuilder()\n");
+
+        Random random = new Random(SEED);
+        int lines = 10;
+        for (int method = 0; lines < lineCount; method++) {
+            text.append("\n    fun method").append(method).append("(value: String) {\n");
+            for (int statement = 0; statement < STATEMENTS_PER_METHOD; statement++) {
+                text.append("        ");
+                if (random.nextInt(100) < loggerCallPercent) {
+                    text.append("log.").append(pickLoggerMethodName(random)).append("(\"Value {} in method ")
+                            .append(method).append("\", value)\n");
+                } else {
+                    switch (random.nextInt(4)) {
+                        case 0 -> text.append("audit.info(\"Audited {}\", value)\n");
+                        case 1 -> text.append("items.add(value)\n");
+                        case 2 -> text.append("builder.append(value).append(").append(statement).append(")\n");
+                        default -> text.append("val length").append(statement).append(" = value.length\n");
+                    }
+                }
+            }
+            text.append("    }\n");
+            lines += STATEMENTS_PER_METHOD + 3;
+        }
+        return text.append("}\n").toString();
+    }
+
+    private static String pickLoggerMethodName(Random random) {
+        return LOGGER_METHOD_NAMES[random.nextInt(LOGGER_METHOD_NAMES.length)];
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests of the encoding of the call sites of the {@link LoggerCallSiteDiskCache} and of its cache files, which are
+ * stored in a temporary directory
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class LoggerCallSiteDiskCacheTest extends BasePlatformTestCase {
+
+    private static final String PLUGIN_VERSION = "test";
+
+    private static final int KEY_SIZE = 20;
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final int RECORD_HEADER_SIZE = KEY_SIZE + 4;
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+        directory = Files.createTempDirectory("logger-folding");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+
+        try {
+            FileUtil.delete(directory.toFile());
+        } catch (Throwable e) {
+            addSuppressedException(e);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testEncodeDecodeRoundTrip() {
+
+        List<LoggerCallSite> callSites = List.of(
+                new LoggerCallSite(10, 30, 31, "log.info(…);", "org.slf4j.Logger"),
+                new LoggerCallSite(40, 65, 66, "log.info(…);", "org.slf4j.Logger"),
+                new LoggerCallSite(80, 95, 95, "logger.debug(…)", null),
+                new LoggerCallSite(100, 120, 121, "registro.información(…);", "com.acme.Registro"));
+
+        assertEquals(callSites, LoggerCallSiteDiskCache.decode(LoggerCallSiteDiskCache.encode(callSites)));
+    }
+
+    public void testEncodeDecodeEmpty() {
+
+        assertEquals(List.of(), LoggerCallSiteDiskCache.decode(LoggerCallSiteDiskCache.encode(List.of())));
+    }
+
+    public void testPutGetAndReopen() throws Exception {
+
+        List<LoggerCallSite> callSites = createCallSites(1);
+        LoggerCallSiteDiskCache cache = open(Long.MAX_VALUE);
+        cache.put(createKey(1), callSites);
+        cache.waitForWriter();
+
+        assertEquals(callSites, cache.get(createKey(1)));
+        assertNull(cache.get(createKey(2)));
+
+        close(cache);
+        LoggerCallSiteDiskCache reopenedCache = open(Long.MAX_VALUE);
+        try {
+            assertEquals(callSites, reopenedCache.get(createKey(1)));
+        } finally {
+            close(reopenedCache);
+        }
+    }
+
+    public void testCompactionKeepsTheMostRecentlyUsedRecords() throws Exception {
+
+        int recordSize = RECORD_HEADER_SIZE + LoggerCallSiteDiskCache.encode(createCallSites(0)).remaining();
+        // The file is compacted when the 17th record is appended and the 7 most recently used records fit in half of it
+        long maxSize = HEADER_SIZE + 16L * recordSize;
+        LoggerCallSiteDiskCache cache = open(maxSize);
+        for (int index = 0; index < 16; index++) {
+            cache.put(createKey(index), createCallSites(index));
+        }
+        cache.waitForWriter();
+        assertEquals(createCallSites(0), cache.get(createKey(0)));
+        cache.put(createKey(16), createCallSites(16));
+        cache.waitForWriter();
+
+        List<Integer> cachedIndexes = new ArrayList<>();
+        for (int index = 0; index <= 16; index++) {
+            List<LoggerCallSite> callSites = cache.get(createKey(index));
+            if (callSites != null) {
+                assertEquals(createCallSites(index), callSites);
+                cachedIndexes.add(index);
+            }
+        }
+        assertEquals(List.of(0, 11, 12, 13, 14, 15, 16), cachedIndexes);
+        assertEquals(List.of(directory.resolve("call-sites.1.bin")), listCacheFiles());
+        assertTrue(Files.size(directory.resolve("call-sites.1.bin")) <= maxSize / 2);
+
+        close(cache);
+        LoggerCallSiteDiskCache reopenedCache = open(maxSize);
+        try {
+            assertEquals(createCallSites(0), reopenedCache.get(createKey(0)));
+            assertEquals(createCallSites(16), reopenedCache.get(createKey(16)));
+            assertNull(reopenedCache.get(createKey(1)));
+        } finally {
+            close(reopenedCache);
+        }
+    }
+
+    @NotNull
+    private LoggerCallSiteDiskCache open(long maxSize) throws Exception {
+
+        LoggerCallSiteDiskCache cache = new LoggerCallSiteDiskCache(directory, PLUGIN_VERSION, maxSize);
+        cache.waitForWriter();
+        return cache;
+    }
+
+    private static void close(@NotNull LoggerCallSiteDiskCache cache) throws Exception {
+
+        cache.dispose();
+        cache.waitForWriter();
+    }
+
+    @NotNull
+    private List<Path> listCacheFiles() throws Exception {
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.toList();
+        }
+    }
+
+    /**
+     * Creates a key whose bytes are all zero except the last one
+     *
+     * @param index the value of the last byte
+     * @return the key
+     */
+    @NotNull
+    private static ByteBuffer createKey(int index) {
+
+        byte[] key = new byte[KEY_SIZE];
+        key[KEY_SIZE - 1] = (byte) index;
+        return ByteBuffer.wrap(key).asReadOnlyBuffer();
+    }
+
+    /**
+     * Creates call sites whose payloads have the same length for every index
+     *
+     * @param index the index, which is added to the offsets
+     * @return the call sites
+     */
+    @NotNull
+    private static List<LoggerCallSite> createCallSites(int index) {
+
+        return List.of(new LoggerCallSite(index, index + 20, index + 21, "log.info(…);", "org.slf4j.Logger"));
+    }
+
+}
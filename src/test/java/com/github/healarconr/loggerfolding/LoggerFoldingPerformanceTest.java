@@ -0,0 +1,174 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.FoldingModel;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Performance tests of the folding builder and the fold and unfold actions on generated Java and Kotlin files of 1k,
+ * 10k and 50k lines with 5% and 25% of logger method calls. The timings are checked against the baselines of the
+ * {@link PerformanceBaselines}, if they were recorded. The caches of the plugin and the resolve caches are dropped
+ * before every attempt, so the timings include the detection of the logger method calls. The fold and unfold actions
+ * compute the call sites in a background task, so every attempt waits until the fold regions are collapsed or
+ * expanded and fails if they are not within {@value #ACTION_TIMEOUT_SECONDS} seconds.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+public class LoggerFoldingPerformanceTest extends BasePlatformTestCase {
+
+    private static final String FOLD_ACTION_ID = "com.github.healarconr.loggerfolding.FoldLoggerMethodCallsAction";
+
+    private static final String UNFOLD_ACTION_ID = "com.github.healarconr.loggerfolding.UnfoldLoggerMethodCallsAction";
+
+    private static final int[] LOGGER_CALL_PERCENTS = {5, 25};
+
+    private static final int ACTION_TIMEOUT_SECONDS = 120;
+
+    private LoggerFoldingApplicationSettings.State savedState;
+
+    @Override
+    protected void setUp() throws Exception {
+
+        super.setUp();
+
+        LoggerFoldingApplicationSettings.State state = LoggerFoldingApplicationSettings.getInstance().getState();
+        savedState = new LoggerFoldingApplicationSettings.State();
+        XmlSerializerUtil.copyBean(state, savedState);
+        state.setCollapseByDefault(true);
+        state.setLazyFoldingLineThreshold(0);
+
+        myFixture.addFileToProject("org/slf4j/Logger.java", GeneratedSources.SLF4J_LOGGER);
+        myFixture.addFileToProject("org/slf4j/LoggerFactory.java", GeneratedSources.SLF4J_LOGGER_FACTORY);
+        myFixture.addFileToProject("com/acme/AuditTrail.java", GeneratedSources.AUDIT_TRAIL);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+
+        try {
+            XmlSerializerUtil.copyBean(savedState, LoggerFoldingApplicationSettings.getInstance().getState());
+        } catch (Throwable e) {
+            addSuppressedException(e);
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testJava1k() throws Throwable {
+
+        measureJava(1_000);
+    }
+
+    public void testJava10k() throws Throwable {
+
+        measureJava(10_000);
+    }
+
+    public void testJava50k() throws Throwable {
+
+        measureJava(50_000);
+    }
+
+    public void testKotlin1k() throws Throwable {
+
+        measureKotlin(1_000);
+    }
+
+    public void testKotlin10k() throws Throwable {
+
+        measureKotlin(10_000);
+    }
+
+    public void testKotlin50k() throws Throwable {
+
+        measureKotlin(50_000);
+    }
+
+    private void measureJava(int lineCount) throws Throwable {
+
+        for (int loggerCallPercent : LOGGER_CALL_PERCENTS) {
+            String className = "Generated" + lineCount + "Lines" + loggerCallPercent + "Percent";
+            String text = GeneratedSources.generateJava(className, lineCount, loggerCallPercent);
+            measure("java." + lineCount + "." + loggerCallPercent, "com/acme/" + className + ".java", text);
+        }
+    }
+
+    private void measureKotlin(int lineCount) throws Throwable {
+
+        for (int loggerCallPercent : LOGGER_CALL_PERCENTS) {
+            String className = "Generated" + lineCount + "Lines" + loggerCallPercent + "Percent";
+            String text = GeneratedSources.generateKotlin(className, lineCount, loggerCallPercent);
+            measure("kotlin." + lineCount + "." + loggerCallPercent, "com/acme/" + className + ".kt", text);
+        }
+    }
+
+    /**
+     * Measures the folding builder and the fold and unfold actions on a file
+     *
+     * @param baselinePrefix the prefix of the names of the baselines
+     * @param path           the relative path of the file
+     * @param text           the text of the file
+     * @throws Throwable if a measurement fails
+     */
+    private void measure(@NotNull String baselinePrefix, @NotNull String path, @NotNull String text) throws Throwable {
+
+        PsiFile psiFile = myFixture.addFileToProject(path, text);
+        myFixture.configureFromExistingVirtualFile(psiFile.getVirtualFile());
+        Document document = myFixture.getEditor().getDocument();
+        LoggerFoldingBuilder builder = new LoggerFoldingBuilder();
+
+        assertTrue("No fold regions were built for " + path, builder.buildFoldRegions(psiFile, document, false).length > 0);
+
+        PerformanceBaselines.measure(baselinePrefix + ".buildFoldRegions", this::dropCaches,
+                () -> builder.buildFoldRegions(psiFile, document, false));
+
+        PerformanceBaselines.measure(baselinePrefix + ".fold", () -> {
+            unfold();
+            dropCaches();
+        }, this::fold);
+
+        PerformanceBaselines.measure(baselinePrefix + ".unfold", () -> {
+            fold();
+            dropCaches();
+        }, this::unfold);
+    }
+
+    private void fold() {
+
+        myFixture.testAction(ActionManager.getInstance().getAction(FOLD_ACTION_ID));
+        PlatformTestUtil.waitWithEventsDispatching("The logger method calls were not folded",
+                () -> countCollapsedFoldRegions() > 0, ACTION_TIMEOUT_SECONDS);
+    }
+
+    private void unfold() {
+
+        myFixture.testAction(ActionManager.getInstance().getAction(UNFOLD_ACTION_ID));
+        PlatformTestUtil.waitWithEventsDispatching("The logger method calls were not unfolded",
+                () -> countCollapsedFoldRegions() == 0, ACTION_TIMEOUT_SECONDS);
+    }
+
+    private long countCollapsedFoldRegions() {
+
+        FoldingModel foldingModel = myFixture.getEditor().getFoldingModel();
+        return Arrays.stream(foldingModel.getAllFoldRegions()).filter(foldRegion -> !foldRegion.isExpanded()).count();
+    }
+
+    /**
+     * Drops the cached values of the plugin, by publishing a new settings snapshot, and the resolve caches
+     */
+    private void dropCaches() {
+
+        LoggerFoldingProjectSettings settings = LoggerFoldingProjectSettings.getInstance(getProject());
+        settings.loadState(settings.getState());
+        PsiManager.getInstance(getProject()).dropResolveCaches();
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.github.healarconr.loggerfolding;
+
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.ThrowableRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stored baseline timings of the performance tests, in milliseconds, read from {@value #RESOURCE}. A measurement is
+ * checked with {@link PlatformTestUtil#startPerformanceTest}, which adjusts the baseline to the speed of the machine.
+ * When the {@value #RECORD_PROPERTY} system property is true, the measurements are recorded in
+ * {@value #RECORD_FILE} instead of being checked, so the baselines can be created by copying that file to the test
+ * resources. An operation without a baseline is run once, so it must complete, but its timing is not checked.
+ *
+ * @author <a href="mailto:hernaneduardoalarcon@gmail.com">Hernán Alarcón</a>
+ */
+final class PerformanceBaselines {
+
+    private static final String RESOURCE = "performance-baselines.properties";
+
+    private static final String RECORD_PROPERTY = "loggerFolding.recordBaselines";
+
+    private static final String RECORD_FILE = "build/performance-baselines.properties";
+
+    private static final int ATTEMPTS = 5;
+
+    private static final int WARMUP_ITERATIONS = 1;
+
+    private static final Properties BASELINES = load();
+
+    private PerformanceBaselines() {
+
+        super();
+    }
+
+    /**
+     * Measures an operation and checks it against its baseline or, in record mode, records its best time. Without a
+     * baseline, the setup and the operation are run once and not measured.
+     *
+     * @param name      the name of the baseline
+     * @param setup     the preparation run before each attempt, which is not measured
+     * @param operation the operation
+     * @throws Throwable if the setup or the operation fails
+     */
+    static void measure(@NotNull String name, @NotNull ThrowableRunnable<Throwable> setup,
+                        @NotNull ThrowableRunnable<Throwable> operation) throws Throwable {
+
+        if (Boolean.getBoolean(RECORD_PROPERTY)) {
+            record(name, setup, operation);
+            return;
+        }
+        String baseline = BASELINES.getProperty(name);
+        if (baseline == null) {
+            setup.run();
+            operation.run();
+            return;
+        }
+        PlatformTestUtil.startPerformanceTest(name, Integer.parseInt(baseline), operation)
+                .setup(setup)
+                .warmupIterations(WARMUP_ITERATIONS)
+                .attempts(ATTEMPTS)
+                .assertTiming();
+    }
+
+    /**
+     * Records the best time of an operation in {@value #RECORD_FILE}
+     *
+     * @param name      the name of the baseline
+     * @param setup     the preparation run before each attempt, which is not measured
+     * @param operation the operation
+     * @throws Throwable if the setup or the operation fails
+     */
+    private static synchronized void record(@NotNull String name, @NotNull ThrowableRunnable<Throwable> setup,
+                                            @NotNull ThrowableRunnable<Throwable> operation) throws Throwable {
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < WARMUP_ITERATIONS + ATTEMPTS; attempt++) {
+            setup.run();
+            long startNanos = System.nanoTime();
+            operation.run();
+            if (attempt >= WARMUP_ITERATIONS) {
+                bestNanos = Math.min(bestNanos, System.nanoTime() - startNanos);
+            }
+        }
+
+        Path recordFile = Path.of(RECORD_FILE);
+        Properties recorded = new Properties();
+        if (Files.exists(recordFile)) {
+            try (InputStream input = Files.newInputStream(recordFile)) {
+                recorded.load(input);
+            }
+        }
+        recorded.setProperty(name, Long.toString(Math.max(TimeUnit.NANOSECONDS.toMillis(bestNanos), 1)));
+        Files.createDirectories(recordFile.getParent());
+        try (OutputStream output = Files.newOutputStream(recordFile)) {
+            recorded.store(output, "Logger Folding performance baselines in milliseconds");
+        }
+    }
+
+    private static Properties load() {
+
+        Properties baselines = new Properties();
+        try (InputStream input = PerformanceBaselines.class.getResourceAsStream(RESOURCE)) {
+            if (input != null) {
+                baselines.load(input);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return baselines;
+    }
+
+}